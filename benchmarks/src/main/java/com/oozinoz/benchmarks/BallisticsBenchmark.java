@@ -0,0 +1,106 @@
+package com.oozinoz.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.ballistics.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Compare evaluating the burn rate and thrust functions
+ * exactly with interpolating them in tables, sampling each
+ * curve the way BallisticsPanel does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BallisticsBenchmark 
+{
+	public static final int N_POINT = 101;
+	/**
+	 * How far the tables may stray from the exact functions.
+	 */
+	@Param({ "1e-4", "1e-8" })
+	public double maxError;
+	public double tPeak = .37;
+	protected BallisticsFunction rate;
+	protected BallisticsFunction thrust;
+	protected BallisticsFunction rateTable;
+	protected BallisticsFunction thrustTable;
+
+/**
+ * Build the tables once per trial.
+ */
+@Setup(Level.Trial)
+public void setUp()
+{
+	Ballistics.setTableError(0);
+	rate = Ballistics.rate();
+	thrust = Ballistics.thrust();
+	rateTable = new TabulatedFunction(rate, maxError);
+	thrustTable = new TabulatedFunction(thrust, maxError);
+}
+
+/**
+ * Sample the exact burn rate.
+ */
+@Benchmark
+public double rate()
+{
+	return sample(rate);
+}
+
+/**
+ * Sample the tabulated burn rate.
+ */
+@Benchmark
+public double rateTable()
+{
+	return sample(rateTable);
+}
+
+/**
+ * Sample the exact thrust.
+ */
+@Benchmark
+public double thrust()
+{
+	return sample(thrust);
+}
+
+/**
+ * Sample the tabulated thrust.
+ */
+@Benchmark
+public double thrustTable()
+{
+	return sample(thrustTable);
+}
+
+/*
+ * Sum a function's values at evenly spaced times.
+ */
+protected double sample(BallisticsFunction f)
+{
+	double sum = 0;
+	for (int i = 0; i < N_POINT; i++)
+	{
+		double t = ((double) i) / (N_POINT - 1);
+		sum += f.function(t, tPeak);
+	}
+	return sum;
+}
+}
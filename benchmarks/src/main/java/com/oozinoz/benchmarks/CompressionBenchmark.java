@@ -0,0 +1,121 @@
+package com.oozinoz.benchmarks;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.io.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Measure gzipping a report: copying it through a 100-byte
+ * buffer into a GZIPOutputStream, as ShowGzip does, against
+ * a CompressionStage stream, with and without parallel mode.
+ * The compressed bytes go to a stream that discards them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressionBenchmark 
+{
+	/**
+	 * The number of bytes in the report.
+	 */
+	@Param({ "1048576", "16777216" })
+	public int size;
+	protected byte[] data;
+	protected OutputStream sink;
+	protected CompressionStage serial;
+	protected CompressionStage parallel;
+
+/**
+ * Build the report and the stages once per trial.
+ */
+@Setup(Level.Trial)
+public void setUp()
+{
+	char[] text = WrapFilterBenchmark.report(size, new Random(42));
+	data = new byte[size];
+	for (int i = 0; i < size; i++)
+	{
+		data[i] = (byte) text[i];
+	}
+	sink = new OutputStream()
+	{
+		public void write(int b)
+		{
+		}
+		public void write(byte[] b, int off, int len)
+		{
+		}
+	};
+	serial = new CompressionStage();
+	parallel = new CompressionStage();
+	parallel.setParallel(true);
+}
+
+/**
+ * Copy the report into a GZIPOutputStream 100 bytes at a
+ * time, as ShowGzip does.
+ */
+@Benchmark
+public void showGzipLoop() throws IOException
+{
+	InputStream in = new ByteArrayInputStream(data);
+	GZIPOutputStream out = new GZIPOutputStream(sink);
+	byte[] buf = new byte[100];
+	while (true)
+	{
+		int n = in.read(buf);
+		if (n == -1)
+		{
+			break;
+		}
+		out.write(buf, 0, n);
+	}
+	out.close();
+}
+
+/**
+ * Write the report to a serial CompressionStage stream.
+ */
+@Benchmark
+public void stage() throws IOException
+{
+	compress(serial);
+}
+
+/**
+ * Write the report to a parallel CompressionStage stream.
+ */
+@Benchmark
+public void parallelStage() throws IOException
+{
+	compress(parallel);
+}
+
+/*
+ * Write the report to a stream from the given stage.
+ */
+protected void compress(CompressionStage stage) throws IOException
+{
+	OutputStream out = stage.compress(sink);
+	out.write(data, 0, data.length);
+	out.close();
+}
+}
@@ -0,0 +1,162 @@
+package com.oozinoz.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.function.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Measure evaluating deep Arithmetic trees, sampling each
+ * tree the way FunPanel does: at evenly spaced points as t
+ * goes 0 to 1.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionBenchmark 
+{
+	public static final int N_POINT = 101;
+	/**
+	 * "balanced" trees branch evenly; "chain" trees nest each
+	 * operation in the left operand of the next one.
+	 */
+	@Param({ "balanced", "chain" })
+	public String shape;
+	/**
+	 * Trees have 2**leafExponent leaves.
+	 */
+	@Param({ "4", "8", "12" })
+	public int leafExponent;
+	protected Function function;
+	protected Function compiled;
+	protected double[] times = new double[N_POINT];
+	protected double[] values = new double[N_POINT];
+
+/**
+ * Build the function once per trial.
+ */
+@Setup(Level.Trial)
+public void setUp()
+{
+	int nLeaf = 1 << leafExponent;
+	function =
+		shape.equals("chain")
+			? chain(nLeaf)
+			: balanced(leafExponent, 0);
+	compiled = new CompiledFunction(function);
+	for (int i = 0; i < N_POINT; i++)
+	{
+		times[i] = (double) i / (N_POINT - 1);
+	}
+}
+
+/**
+ * Sample the function at N_POINT values of t.
+ */
+@Benchmark
+public double sample()
+{
+	double sum = 0;
+	for (int i = 0; i < N_POINT; i++)
+	{
+		sum += function.f((double) i / (N_POINT - 1));
+	}
+	return sum;
+}
+
+/**
+ * Sample the compiled function at N_POINT values of t.
+ */
+@Benchmark
+public double sampleCompiled()
+{
+	double sum = 0;
+	for (int i = 0; i < N_POINT; i++)
+	{
+		sum += compiled.f((double) i / (N_POINT - 1));
+	}
+	return sum;
+}
+
+/**
+ * Sample the function at N_POINT values of t in one batch.
+ */
+@Benchmark
+public double sampleBatch()
+{
+	function.f(times, values);
+	double sum = 0;
+	for (int i = 0; i < N_POINT; i++)
+	{
+		sum += values[i];
+	}
+	return sum;
+}
+
+/**
+ * Return a balanced tree of the given depth.
+ */
+public static Function balanced(int depth, int n)
+{
+	if (depth == 0)
+	{
+		return leaf(n);
+	}
+	return new Arithmetic(
+		operator(n),
+		balanced(depth - 1, 2 * n),
+		balanced(depth - 1, 2 * n + 1));
+}
+
+/**
+ * Return a tree with the given number of leaves that nests
+ * each operation in the left operand of the next.
+ */
+public static Function chain(int nLeaf)
+{
+	Function f = leaf(0);
+	for (int n = 1; n < nLeaf; n++)
+	{
+		f = new Arithmetic(operator(n), f, leaf(n));
+	}
+	return f;
+}
+
+/*
+ * Leave out division so that sampling never divides by
+ * zero.
+ */
+protected static char operator(int n)
+{
+	return "+-*+".charAt(n % 4);
+}
+
+protected static Function leaf(int n)
+{
+	switch (n % 4)
+	{
+		case 0 :
+			return new T();
+		case 1 :
+			return new Constant(1.5);
+		case 2 :
+			return new Sin(new T());
+		default :
+			return new Scale(-1, 1);
+	}
+}
+}
@@ -0,0 +1,106 @@
+package com.oozinoz.benchmarks;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.machine.*;
+import com.oozinoz.robot.interpreter.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Measure the robot interpreter running "while" commands over
+ * the demo machine line. Each invocation carries every bin from
+ * the star press to the unload buffer and back again, so the
+ * line ends each invocation as it started.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterpreterBenchmark 
+{
+	@Param({ "2", "64", "1024" })
+	public int nBin;
+	protected Context context;
+	protected Command there;
+	protected Command back;
+	protected PrintStream out;
+
+/**
+ * Load the star press with bins, and build commands that
+ * carry them to the unload buffer and back. The machines and
+ * the robot report every move on System.out, so discard that
+ * output while the benchmark runs.
+ */
+@Setup(Level.Trial)
+public void setUp()
+{
+	out = System.out;
+	System.setOut(new PrintStream(new OutputStream()
+	{
+		public void write(int b)
+		{
+		}
+		public void write(byte[] b, int off, int len)
+		{
+		}
+	}));
+	context = MachineLine.createContext();
+	Machine sp = context.lookup("StarPress1401");
+	Machine ub = context.lookup("UnloadBuffer1501");
+	while (sp.hasMaterial())
+	{
+		sp.unload();
+	}
+	while (ub.hasMaterial())
+	{
+		ub.unload();
+	}
+	for (int i = 0; i < nBin; i++)
+	{
+		sp.addBin(new Bin("bin" + i));
+	}
+	Constant spTerm = new Constant(sp);
+	Constant ubTerm = new Constant(ub);
+	there =
+		new WhileCommand(
+			new HasMaterial(spTerm),
+			new CarryCommand(spTerm, ubTerm));
+	back =
+		new WhileCommand(
+			new HasMaterial(ubTerm),
+			new CarryCommand(ubTerm, spTerm));
+}
+
+/**
+ * Restore System.out.
+ */
+@TearDown(Level.Trial)
+public void tearDown()
+{
+	System.setOut(out);
+}
+
+/**
+ * Carry every bin to the unload buffer and back.
+ */
+@Benchmark
+public void carryThereAndBack()
+{
+	there.execute(context);
+	back.execute(context);
+}
+}
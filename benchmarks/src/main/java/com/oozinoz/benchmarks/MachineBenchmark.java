@@ -0,0 +1,125 @@
+package com.oozinoz.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.dublin.*;
+import com.oozinoz.machine.*;
+import com.oozinoz.util.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Measure the machine composite's recursive operations over
+ * plants that range from the Dublin model up to synthetic
+ * plants with millions of machines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MachineBenchmark 
+{
+	@Param({ "dublin", "10000", "1000000", "2000000" })
+	public String plant;
+	protected MachineComposite root;
+
+/**
+ * Build the plant once per trial.
+ */
+@Setup(Level.Trial)
+public void setUp()
+{
+	root = Plants.plant(plant);
+}
+
+/**
+ * Count the leaf-node machines in the plant.
+ */
+@Benchmark
+public int machineCount()
+{
+	return root.getMachineCount();
+}
+
+/**
+ * Walk every node of the plant with a composite iterator.
+ */
+@Benchmark
+public int iterate()
+{
+	int n = 0;
+	ComponentIterator i = root.iterator();
+	while (i.hasNext())
+	{
+		i.next();
+		n++;
+	}
+	return n;
+}
+
+/**
+ * Walk only the leaf nodes of the plant with a composite
+ * iterator.
+ */
+@Benchmark
+public int iterateLeaves()
+{
+	int n = 0;
+	ComponentIterator i = root.iterator();
+	i.setShowInterior(false);
+	while (i.hasNext())
+	{
+		i.next();
+		n++;
+	}
+	return n;
+}
+
+/**
+ * Walk every node of the plant with an iterator that assumes
+ * the plant is a tree and so does not track visited nodes.
+ */
+@Benchmark
+public int iterateTree()
+{
+	int n = 0;
+	ComponentIterator i = root.treeIterator();
+	while (i.hasNext())
+	{
+		i.next();
+		n++;
+	}
+	return n;
+}
+
+/**
+ * Collect the plant's machines with a visitor on one thread.
+ */
+@Benchmark
+public int rake()
+{
+	return new RakeVisitor().getLeaves(root).size();
+}
+
+/**
+ * Collect the plant's machines with a visitor on the common
+ * fork/join pool.
+ */
+@Benchmark
+public int parallelRake()
+{
+	return new ParallelRakeVisitor().getLeaves(root).size();
+}
+}
@@ -0,0 +1,122 @@
+package com.oozinoz.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.units.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Measure the cost of unit-checked arithmetic on measures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MeasureBenchmark implements UnitConstants 
+{
+	public Measure length = FOOT.times(3.5);
+	public Measure time = SECOND.times(2.25);
+	public Measure mass = GRAM.times(450);
+	public double factor = 1.0001;
+	protected MeasureAccumulator accumulator = new MeasureAccumulator();
+	protected StringBuilder report = new StringBuilder();
+
+/**
+ * Multiply a measure by a number.
+ */
+@Benchmark
+public Measure timesDouble()
+{
+	return length.times(factor);
+}
+
+/**
+ * Multiply two measures, which combines their dimensions.
+ */
+@Benchmark
+public Measure timesMeasure()
+{
+	return length.times(mass);
+}
+
+/**
+ * Divide two measures, which combines their dimensions.
+ */
+@Benchmark
+public Measure divide()
+{
+	return length.divide(time);
+}
+
+/**
+ * Chain the sort of arithmetic that a simulation does, in
+ * this case arriving at a force.
+ */
+@Benchmark
+public Measure force()
+{
+	return mass.times(length).divide(time).divide(time);
+}
+
+/**
+ * Arrive at the same force in an accumulator, creating only
+ * the accumulator and the resulting Force.
+ */
+@Benchmark
+public Measure forceAccumulated()
+{
+	return new MeasureAccumulator(mass)
+		.times(length)
+		.divide(time)
+		.divide(time)
+		.toMeasure();
+}
+
+/**
+ * Arrive at the same force in a reused accumulator, checking
+ * its dimension instead of creating a Force.
+ */
+@Benchmark
+public double forceReused()
+{
+	accumulator.set(mass).times(length).divide(time).divide(time);
+	if (!accumulator.is(DimensionConstants.FORCE))
+	{
+		throw new MeasureException("Not a force");
+	}
+	return accumulator.getMagnitude();
+}
+
+/**
+ * Print a measure, as a report does, through toString().
+ */
+@Benchmark
+public String print()
+{
+	return length.times(factor).toString();
+}
+
+/**
+ * Print a measure into a reused StringBuilder.
+ */
+@Benchmark
+public int append()
+{
+	report.setLength(0);
+	length.times(factor).appendTo(report);
+	return report.length();
+}
+}
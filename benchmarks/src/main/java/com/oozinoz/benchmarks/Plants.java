@@ -0,0 +1,105 @@
+package com.oozinoz.benchmarks;
+
+import com.oozinoz.machine.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Build the machine composites that the benchmarks run
+ * against. A plant is named either "dublin", for the model
+ * of our Dublin facility, or by the number of machines a
+ * synthetic plant should contain.
+ */
+public class Plants 
+{
+	/**
+	 * The number of machines on each line of a synthetic plant.
+	 */
+	public static final int LINE_SIZE = 64;
+	/**
+	 * The number of lines in each bay of a synthetic plant.
+	 */
+	public static final int BAY_SIZE = 32;
+
+private Plants()
+{
+}
+
+/**
+ * Return the plant with the given name.
+ *
+ * @param name "dublin", or the number of machines to put in
+ *             a synthetic plant
+ * @return the plant with the given name
+ */
+public static MachineComposite plant(String name)
+{
+	if (name.equals("dublin"))
+	{
+		return OozinozFactory.dublin();
+	}
+	return synthetic(Integer.parseInt(name));
+}
+
+/**
+ * Return a synthetic plant with the given number of machines.
+ * The plant is a tree: a root holds bays, each bay holds up to
+ * BAY_SIZE lines, and each line holds up to LINE_SIZE machines.
+ * Every component has a distinct id.
+ *
+ * @param nMachine the number of machines in the plant
+ * @return a synthetic plant with the given number of machines
+ */
+public static MachineComposite synthetic(int nMachine)
+{
+	MachineRoot root = new MachineRoot(0, new Engineer(4096));
+	root.setName(" Factory Synthetic" + nMachine);
+	int id = 1;
+	int made = 0;
+	while (made < nMachine)
+	{
+		MachineComposite bay = new MachineComposite(id++, root);
+		for (int i = 0; i < BAY_SIZE && made < nMachine; i++)
+		{
+			MachineComposite line = new MachineComposite(id++, bay);
+			for (int j = 0; j < LINE_SIZE && made < nMachine; j++)
+			{
+				line.add(machine(id++, line, made++));
+			}
+			bay.add(line);
+		}
+		root.add(bay);
+	}
+	return root;
+}
+
+/*
+ * Cycle through the machine types so that the plant looks
+ * something like a real one.
+ */
+protected static Machine machine(
+	int id,
+	MachineComponent parent,
+	int n)
+{
+	switch (n % 4)
+	{
+		case 0 :
+			return new Mixer(id, parent);
+		case 1 :
+			return new StarPress(id, parent);
+		case 2 :
+			return new ShellAssembler(id, parent);
+		default :
+			return new Fuser(id, parent);
+	}
+}
+}
@@ -0,0 +1,55 @@
+package com.oozinoz.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Run the benchmarks, accepting the usual JMH command line
+ * options. Unless the command line says otherwise, results go
+ * to target/jmh-result.json so that runs can be compared.
+ */
+public class RunBenchmarks 
+{
+	public static final String RESULT_FILE = "target/jmh-result.json";
+
+/**
+ * Run the benchmarks that the command line selects, or all of
+ * them.
+ */
+public static void main(String[] args) throws Exception
+{
+	CommandLineOptions cmd = new CommandLineOptions(args);
+	if (cmd.shouldHelp())
+	{
+		cmd.showHelp();
+		return;
+	}
+	ChainedOptionsBuilder b = new OptionsBuilder().parent(cmd);
+	if (!cmd.getResultFormat().hasValue())
+	{
+		b.resultFormat(ResultFormatType.JSON);
+	}
+	if (!cmd.getResult().hasValue())
+	{
+		b.result(RESULT_FILE);
+	}
+	Runner runner = new Runner(b.build());
+	if (cmd.shouldList())
+	{
+		runner.list();
+		return;
+	}
+	runner.run();
+}
+}
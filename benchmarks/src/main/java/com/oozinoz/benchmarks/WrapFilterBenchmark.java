@@ -0,0 +1,128 @@
+package com.oozinoz.benchmarks;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oozinoz.io.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Measure wrapping a report with WrapFilter, against the
+ * StringBuffer-based filter that WrapFilter replaced. The
+ * report is random words on lines of random length, and the
+ * wrapped text goes to a writer that discards it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WrapFilterBenchmark 
+{
+	public static final int LINE_LENGTH = 72;
+	/**
+	 * The number of characters in the report.
+	 */
+	@Param({ "65536", "4194304" })
+	public int size;
+	protected char[] text;
+	protected Writer sink;
+
+/**
+ * Build the report once per trial.
+ */
+@Setup(Level.Trial)
+public void setUp()
+{
+	text = report(size, new Random(42));
+	sink = new Writer()
+	{
+		public void write(char[] cbuf, int off, int len)
+		{
+		}
+		public void flush()
+		{
+		}
+		public void close()
+		{
+		}
+	};
+}
+
+/**
+ * Return random words, a few on each line.
+ *
+ * @param size the number of characters to return
+ * @param r a source of randomness
+ * @return random words, a few on each line
+ */
+public static char[] report(int size, Random r)
+{
+	char[] text = new char[size];
+	int wordLeft = 0;
+	for (int i = 0; i < size; i++)
+	{
+		if (wordLeft-- > 0)
+		{
+			text[i] = (char) ('a' + r.nextInt(26));
+		}
+		else
+		{
+			text[i] = r.nextInt(8) == 0 ? '\n' : ' ';
+			wordLeft = 1 + r.nextInt(10);
+		}
+	}
+	return text;
+}
+
+/**
+ * Wrap the report with the StringBuffer-based filter.
+ */
+@Benchmark
+public void wrapStringBuffer() throws IOException
+{
+	wrap(new StringBufferWrapFilter(new BufferedWriter(sink), LINE_LENGTH));
+}
+
+/**
+ * Wrap the report with WrapFilter.
+ */
+@Benchmark
+public void wrap() throws IOException
+{
+	wrap(new WrapFilter(new BufferedWriter(sink), LINE_LENGTH));
+}
+
+/**
+ * Wrap and justify the report with WrapFilter.
+ */
+@Benchmark
+public void wrapJustified() throws IOException
+{
+	WrapFilter out = new WrapFilter(new BufferedWriter(sink), LINE_LENGTH);
+	out.setJustify(true);
+	wrap(out);
+}
+
+/*
+ * Write the report through the given filter.
+ */
+protected void wrap(Writer out) throws IOException
+{
+	out.write(text, 0, text.length);
+	out.flush();
+}
+}
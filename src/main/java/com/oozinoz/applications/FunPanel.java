@@ -32,15 +32,47 @@ protected void paintComponent(Graphics g)
 	super.paintComponent(g);
 	double h = (double) (getHeight() - 1);
 	double w = (double) (getWidth() - 1);
-	for (int i = 0; i < nPoint; i++)
+	double[] xs = xValues;
+	double[] ys = yValues;
+	int n = nPoint;
+	if (sampler != null)
 	{
-		double t = ((double) i) / (nPoint - 1);
-		xArray[i] = (int) (w * (fx.f(t) - xMin) / (xMax - xMin));
+		sampler.setScale(scale(w, xMax - xMin), scale(h, yMax - yMin));
+		n = sampler.sample(fx, fy);
+		xs = sampler.getX();
+		ys = sampler.getY();
+	}
+	else
+	{
+		fx.f(tArray, xValues);
+		fy.f(tArray, yValues);
+	}
+	if (xArray.length < n)
+	{
+		xArray = new int[n];
+		yArray = new int[n];
+	}
+	for (int i = 0; i < n; i++)
+	{
+		xArray[i] = (int) (w * (xs[i] - xMin) / (xMax - xMin));
 		yArray[i] =
-			(int) (h - h * (fy.f(t) - yMin) / (yMax - yMin));
+			(int) (h - h * (ys[i] - yMin) / (yMax - yMin));
 	}
 	g.setColor(Color.black);
-	g.drawPolyline(xArray, yArray, nPoint);
+	g.drawPolyline(xArray, yArray, n);
+}
+
+/**
+ * Set the sampler that chooses which points to plot, or set
+ * null to plot <code>nPoint</code> evenly spaced points.
+ *
+ * @param sampler the sampler to plot with, or null
+ */
+public void setSampler(AdaptiveSampler sampler)
+{
+	this.sampler = sampler;
+	calculateExtrema();
+	repaint();
 }
 
 /**
@@ -61,6 +93,10 @@ public void setXY(Function fx, Function fy)
 	protected Function fx = new T();
 	protected Function fy = new T();
 	protected int nPoint = 101;
+	protected AdaptiveSampler sampler = new AdaptiveSampler();
+	protected double[] tArray = times(nPoint);
+	protected double[] xValues = new double[nPoint];
+	protected double[] yValues = new double[nPoint];
 	protected int[] xArray = new int[nPoint];
 	protected double xMax = 1;
 	protected double xMin = 0;
@@ -68,26 +104,72 @@ public void setXY(Function fx, Function fy)
 	protected double yMax = 1;
 	protected double yMin = 0;
 
+/*
+ * Return n times that go evenly from 0 to 1.
+ */
+protected static double[] times(int n)
+{
+	double[] t = new double[n];
+	for (int i = 0; i < n; i++)
+	{
+		t[i] = ((double) i) / (n - 1);
+	}
+	return t;
+}
+
+/*
+ * Return the pixels per unit for a range of values.
+ */
+protected static double scale(double pixels, double range)
+{
+	return range > 0 ? pixels / range : 1;
+}
+
+/*
+ * Find the range of x and y values, from evenly spaced points
+ * and, if there is a sampler, from the points it picks at
+ * about the resolution of a large panel.
+ */
 protected void calculateExtrema()
 {
-	for (int i = 0; i < nPoint; i++)
+	fx.f(tArray, xValues);
+	fy.f(tArray, yValues);
+	widenExtrema(xValues, yValues, nPoint, true);
+	if (sampler != null)
+	{
+		sampler.setScale(
+			scale(1000, xMax - xMin), scale(1000, yMax - yMin));
+		int n = sampler.sample(fx, fy);
+		widenExtrema(sampler.getX(), sampler.getY(), n, false);
+	}
+}
+
+/*
+ * Widen the range of x and y values to include the given
+ * points, or, if reset is true, set the range to just cover
+ * them.
+ */
+protected void widenExtrema(
+	double[] xs, double[] ys, int n, boolean reset)
+{
+	for (int i = 0; i < n; i++)
 	{
-		double t = ((double) i) / (nPoint - 1);
-		double dx = fx.f(t);
-		double dy = fy.f(t);
-		if (i == 0 || dx > xMax)
+		double dx = xs[i];
+		double dy = ys[i];
+		boolean first = reset && i == 0;
+		if (first || dx > xMax)
 		{
 			xMax = dx;
 		}
-		if (i == 0 || dx < xMin)
+		if (first || dx < xMin)
 		{
 			xMin = dx;
 		}
-		if (i == 0 || dy > yMax)
+		if (first || dy > yMax)
 		{
 			yMax = dy;
 		}
-		if (i == 0 || dy < yMin)
+		if (first || dy < yMin)
 		{
 			yMin = dy;
 		}
@@ -5,6 +5,7 @@ import java.awt.event.*;
 import javax.swing.*;
 import com.oozinoz.machine.Bin;
 import com.oozinoz.machine.BinStack;
+import com.oozinoz.machine.PacedBinStack;
 import com.oozinoz.ui.SwingFacade;
 
 /*
@@ -18,8 +19,8 @@ import com.oozinoz.ui.SwingFacade;
  * restriction that you may not claim that you wrote it.
  */
 /**
- * Show an application that demonstrates the Object class's
- * wait() and notify() methods. The application loads and unloads
+ * Show an application that demonstrates threads that wait
+ * on a bounded stack. The application loads and unloads
  * a stack of bins. If the stack is empty and the user clicks
  * Unload, the button disables and a thread waits for a bin
  * to be loaded. At this point, pressing Load briefly places
@@ -79,7 +80,8 @@ protected BinStack binStack()
 {
 	if (binStack == null)
 	{
-		binStack = new BinStack();
+		// slow down the stack so the user can see bins come and go
+		binStack = new PacedBinStack(new BinStack());
 	}
 	return binStack;
 }
@@ -105,8 +107,8 @@ protected JButton loadButton()
 	return loadButton;
 }
 /**
- * Show an application that demonstrates the Object class's
- * wait() and notify() methods. 
+ * Show an application that demonstrates threads that wait
+ * on a bounded stack. 
  */
 public static void main(String[] args)
 {
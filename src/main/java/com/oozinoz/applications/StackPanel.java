@@ -31,7 +31,7 @@ public StackPanel(BinStack binStack)
 {
 	this.binStack = binStack;
 	setPreferredSize(
-		new Dimension(100, 100 * BinStack.STACK_LIMIT));
+		new Dimension(100, 100 * binStack.getLimit()));
 }
 protected void paintComponent(Graphics g)
 {
@@ -50,7 +50,7 @@ protected void showBin(Graphics g, int bin)
 	// lifted to the height of the stack
 	for (int j = 0; j < binY.length; j++)
 	{
-		binY[j] += (BinStack.STACK_LIMIT - bin - 1) * 100;
+		binY[j] += (binStack.getLimit() - bin - 1) * 100;
 	}
 	g.fillPolygon(binX, binY, binX.length);
 }
@@ -23,6 +23,9 @@ public class Ballistics
 
 	private static BallisticsFunction rate;
 	private static BallisticsFunction thrust;
+	private static BallisticsFunction tabulatedRate;
+	private static BallisticsFunction tabulatedThrust;
+	private static double tableError = 0;
 
 /**
  * Return a standard function that models the burn rate
@@ -35,6 +38,22 @@ public class Ballistics
  *         maximum
  */
 public static BallisticsFunction rate() 
+{
+	if (tableError > 0)
+	{
+		if (tabulatedRate == null)
+		{
+			tabulatedRate = new TabulatedFunction(exactRate(), tableError);
+		}
+		return tabulatedRate;
+	}
+	return exactRate();
+}
+
+/*
+ * Return the burn rate function, evaluated exactly.
+ */
+protected static BallisticsFunction exactRate() 
 {
 	if (rate == null) 
 	{
@@ -60,6 +79,23 @@ public static BallisticsFunction rate()
  *         its maximum
  */
 public static BallisticsFunction thrust() 
+{
+	if (tableError > 0)
+	{
+		if (tabulatedThrust == null)
+		{
+			tabulatedThrust =
+				new TabulatedFunction(exactThrust(), tableError);
+		}
+		return tabulatedThrust;
+	}
+	return exactThrust();
+}
+
+/*
+ * Return the thrust function, evaluated exactly.
+ */
+protected static BallisticsFunction exactThrust() 
 {
 	if (thrust == null) {
 		thrust = new BallisticsFunction() 
@@ -67,10 +103,27 @@ public static BallisticsFunction thrust()
 			public double function(double t, double tPeak) 
 			{
 				return 1.7
-					* Math.pow((rate().function(t, tPeak) / .6), (1 / .3));
+					* Math.pow((exactRate().function(t, tPeak) / .6), (1 / .3));
 			}
 		};
 	}
 	return thrust;
 }
+
+/**
+ * Make rate() and thrust() return functions that interpolate
+ * in tables, computed once, that stay within the given error
+ * of the exact functions, or set 0 to evaluate the functions
+ * exactly. Functions that these methods returned before keep
+ * working as they did.
+ *
+ * @param maxError how far the tabulated functions may stray
+ *                 from the exact ones, or 0
+ */
+public static void setTableError(double maxError) 
+{
+	tableError = maxError;
+	tabulatedRate = null;
+	tabulatedThrust = null;
+}
 }
\ No newline at end of file
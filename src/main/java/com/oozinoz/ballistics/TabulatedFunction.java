@@ -0,0 +1,194 @@
+package com.oozinoz.ballistics;
+
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A TabulatedFunction object answers a ballistics function
+ * from a table that it computes once, instead of evaluating
+ * the function for every sample. The function must depend on
+ * burn time and peak time only through their difference, t -
+ * tPeak, as the standard burn rate and thrust functions do.
+ * <p>
+ * The table covers a range of differences, evenly spaced
+ * finely enough that interpolating linearly between entries
+ * stays within a given error of the function. Between two
+ * entries, interpolating strays by at most an eighth of the
+ * squared spacing times the function's largest second
+ * derivative there. The table estimates that derivative from
+ * second differences of entries half as far apart, and halves
+ * its spacing until the bound is within the error, keeping to
+ * at most MAX_INTERVALS intervals. For differences outside the
+ * table, this object evaluates the function itself.
+ */
+public class TabulatedFunction implements BallisticsFunction 
+{
+	public static final int MAX_INTERVALS = 1 << 20;
+	protected BallisticsFunction function;
+	protected double dMin;
+	protected double dMax;
+	protected double maxError;
+	protected double perStep;
+	protected double[] table;
+
+/**
+ * Tabulate a ballistics function for differences t - tPeak
+ * from -1 to 1, which covers every burn time and peak time
+ * from 0 to 1.
+ *
+ * @param function a function of t - tPeak
+ * @param maxError how far the table may stray from the
+ *                 function
+ */
+public TabulatedFunction(BallisticsFunction function, double maxError)
+{
+	this(function, -1, 1, maxError);
+}
+/**
+ * Tabulate a ballistics function for a range of differences
+ * t - tPeak.
+ *
+ * @param function a function of t - tPeak
+ * @param dMin the smallest difference to tabulate
+ * @param dMax the largest difference to tabulate
+ * @param maxError how far the table may stray from the
+ *                 function
+ */
+public TabulatedFunction(
+	BallisticsFunction function,
+	double dMin,
+	double dMax,
+	double maxError)
+{
+	if (!(dMin < dMax) || !(maxError > 0))
+	{
+		throw new IllegalArgumentException(
+			"Tabulating needs a range and a positive error");
+	}
+	this.function = function;
+	this.dMin = dMin;
+	this.dMax = dMax;
+	this.maxError = maxError;
+	int n = 64;
+	double[] values = new double[n + 1];
+	for (int i = 0; i <= n; i++)
+	{
+		values[i] = function.function(at(i, n), 0);
+	}
+	while (true)
+	{
+		if (2 * n > MAX_INTERVALS)
+		{
+			throw new IllegalArgumentException(
+				"Cannot tabulate within " + maxError + " in "
+					+ MAX_INTERVALS + " intervals");
+		}
+		// the middles of this table are the odd entries of the next
+		double[] finer = new double[2 * n + 1];
+		for (int i = 0; i < n; i++)
+		{
+			finer[2 * i] = values[i];
+			finer[2 * i + 1] = function.function(at(2 * i + 1, 2 * n), 0);
+		}
+		finer[2 * n] = values[n];
+		double error = error(finer);
+		values = finer;
+		n *= 2;
+		if (!(error > maxError))
+		{
+			break;
+		}
+	}
+	table = values;
+	perStep = n / (dMax - dMin);
+}
+/**
+ * Return the value of the tabulated function, interpolating
+ * between the table's entries.
+ *
+ * @param t the burn time
+ * @param tPeak the time at which the burn area peaks
+ * @return the value of the function at t and tPeak
+ */
+public double function(double t, double tPeak)
+{
+	double d = t - tPeak;
+	if (!(d >= dMin && d <= dMax))
+	{
+		return function.function(d, 0);
+	}
+	double x = (d - dMin) * perStep;
+	int i = Math.min((int) x, table.length - 2);
+	double a = table[i];
+	return a + (x - i) * (table[i + 1] - a);
+}
+/**
+ * Return the error that this table stays within.
+ *
+ * @return the error that this table stays within
+ */
+public double getMaxError()
+{
+	return maxError;
+}
+/**
+ * Return the number of entries in this table.
+ *
+ * @return the number of entries in this table
+ */
+public int getSize()
+{
+	return table.length;
+}
+/*
+ * Return a bound on how far a table with every other entry of
+ * the given one strays from the function. Between entries h
+ * apart, interpolating strays at most h*h/8 times the largest
+ * second derivative there, and h*h/8 times the second
+ * derivative near the middle of the pair is about half the
+ * second difference of the finer entries around it. Taking the
+ * largest second difference at the pair's middle, its ends and
+ * its neighbors' middles guards against a curve that bends
+ * most between the points checked. The bound is never less
+ * than the error measured at the middle itself.
+ */
+protected static double error(double[] finer)
+{
+	int n = (finer.length - 1) / 2;
+	double[] bend = new double[finer.length];
+	for (int j = 1; j < finer.length - 1; j++)
+	{
+		bend[j] = Math.abs(finer[j - 1] - 2 * finer[j] + finer[j + 1]);
+	}
+	double error = 0;
+	for (int i = 0; i < n; i++)
+	{
+		double middle = Math.abs(
+			finer[2 * i + 1] - (finer[2 * i] + finer[2 * i + 2]) / 2);
+		double most = 0;
+		for (int j = Math.max(1, 2 * i - 1);
+			j <= Math.min(finer.length - 2, 2 * i + 3); j++)
+		{
+			most = Math.max(most, bend[j]);
+		}
+		error = Math.max(error, Math.max(middle, most / 2));
+	}
+	return error;
+}
+/*
+ * Return the difference at entry i of a table with n
+ * intervals.
+ */
+protected double at(int i, int n)
+{
+	return dMin + (dMax - dMin) * i / n;
+}
+}
@@ -23,6 +23,36 @@ import com.oozinoz.machine.*;
 public class MachineController 
 {
 	protected MachineDriver driver;
+	protected Queue queue;
+/**
+ * Create a controller with no driver, whose input queue grows
+ * as needed and so is never full.
+ */
+public MachineController()
+{
+	queue = new Queue();
+}
+/**
+ * Create a controller for the machine that the given driver
+ * runs. The controller's input queue holds as many bins as
+ * the driver allows.
+ *
+ * @param MachineDriver the driver for the controlled machine
+ * @throws IllegalArgumentException if the driver allows fewer
+ *         than one bin in the queue
+ */
+public MachineController(MachineDriver driver)
+{
+	int queueMax = driver.getQueueMax();
+	if (queueMax < 1)
+	{
+		throw new IllegalArgumentException(
+			"A machine driver must allow at least one bin in "
+				+ "the input queue, not " + queueMax);
+	}
+	this.driver = driver;
+	queue = new Queue(queueMax);
+}
 /**
  * Return true if there is no more room in the input queue.
  *
@@ -30,11 +60,9 @@ public class MachineController
  */
 public boolean inputFull()
 {
-	return driver.getQueueMax() >= getQueue().size();
+	return queue.isFull();
 }
 
-	protected Queue queue = new Queue();
-
 /**
  * Return the queue of bins waiting for this machine.
  *
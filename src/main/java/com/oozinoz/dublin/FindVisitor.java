@@ -27,14 +27,34 @@ public class FindVisitor implements MachineVisitor
 	private int soughtId;
 /**
  * Finds a machine with the given id, within the 
- * given machine composite.
+ * given machine composite. This uses the composite's id
+ * index rather than visiting the composite's nodes.
  *
  * @param MachineComponent the composite to look within
  * @param id the id of the machine to find
  * @return a machine with the given id, within the 
  *         given machine composite
+ * @see MachineComposite#lookup(int)
  */
 public MachineComponent find(MachineComponent mc, int id)
+{
+	if (mc instanceof MachineComposite)
+	{
+		return ((MachineComposite) mc).lookup(id);
+	}
+	return mc.getId() == id ? mc : null;
+}
+/**
+ * Finds a machine with the given id, within the 
+ * given machine composite, by visiting the composite's
+ * nodes.
+ *
+ * @param MachineComponent the composite to look within
+ * @param id the id of the machine to find
+ * @return a machine with the given id, within the 
+ *         given machine composite
+ */
+public MachineComponent visitAndFind(MachineComponent mc, int id)
 {
 	sought = null;
 	soughtId = id;
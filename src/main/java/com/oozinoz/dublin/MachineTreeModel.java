@@ -75,6 +75,22 @@ public int getIndexOfChild(Object parent, Object child)
 	}
 	return 0;
 }
+/**
+ * Returns the node with the given id, using the root
+ * composite's id index.
+ *
+ * @param   id  the id of a node in the tree
+ * @return  the node with the given id, or null if the
+ *          tree has no such node
+ */
+public MachineComponent findNode(int id)
+{
+	if (root instanceof MachineComposite)
+	{
+		return ((MachineComposite) root).lookup(id);
+	}
+	return root.getId() == id ? root : null;
+}
 /**
  * Returns the root of the tree. 
  *
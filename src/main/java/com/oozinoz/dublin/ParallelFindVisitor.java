@@ -0,0 +1,114 @@
+package com.oozinoz.dublin;
+
+import com.oozinoz.machine.*;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * This class finds a particular machine within a machine
+ * composite, as FindVisitor.visitAndFind() does, but walks the
+ * composite on a fork/join pool. As soon as any task finds the
+ * machine, the other tasks stop looking.
+ * <p>
+ * Composites index their components by id, so a lookup is
+ * usually faster than any walk. This class is for composites
+ * that are too large to walk on one thread, when a walk is
+ * what's wanted.
+ * 
+ * @see FindVisitor
+ * @see MachineComposite#lookup(int)
+ */
+public class ParallelFindVisitor extends ParallelMachineVisitor 
+{
+	protected final int soughtId;
+/**
+ * Create a visitor that looks for the given id, running on the
+ * common fork/join pool.
+ *
+ * @param id the id of the machine to find
+ */
+public ParallelFindVisitor(int id)
+{
+	this.soughtId = id;
+}
+/**
+ * Create a visitor that looks for the given id, running on the
+ * given pool, and that walks composites with at most the given
+ * number of machines within a single task.
+ *
+ * @param id the id of the machine to find
+ * @param pool the pool to run on
+ * @param threshold the most machines to walk within one task
+ */
+public ParallelFindVisitor(
+	int id,
+	ForkJoinPool pool,
+	int threshold)
+{
+	super(pool, threshold);
+	this.soughtId = id;
+}
+/**
+ * Finds a machine with this visitor's id, within the given
+ * machine composite.
+ *
+ * @param MachineComponent the composite to look within
+ * @return a machine with the given id, within the 
+ *         given machine composite
+ */
+public MachineComponent find(MachineComponent mc)
+{
+	return ((MachineComponent[]) walk(mc))[0];
+}
+/*
+ * Prefer what the left result found.
+ */
+protected Object combine(Object left, Object right)
+{
+	return ((MachineComponent[]) left)[0] != null ? left : right;
+}
+/*
+ * Stop once the sought component turns up.
+ */
+protected boolean isDone(Object result)
+{
+	return ((MachineComponent[]) result)[0] != null;
+}
+/*
+ * Start with an empty slot for the sought component.
+ */
+protected Object newResult()
+{
+	return new MachineComponent[1];
+}
+/*
+ * Check if the provided composite is the sought one.
+ */
+protected void visitComposite(MachineComposite mc, Object result)
+{
+	check(mc, (MachineComponent[]) result);
+}
+/*
+ * Check if the provided machine is the sought one.
+ */
+protected void visitMachine(Machine m, Object result)
+{
+	check(m, (MachineComponent[]) result);
+}
+protected void check(MachineComponent mc, MachineComponent[] result)
+{
+	if (result[0] == null && mc.getId() == soughtId)
+	{
+		result[0] = mc;
+	}
+}
+}
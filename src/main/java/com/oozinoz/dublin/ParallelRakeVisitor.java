@@ -0,0 +1,81 @@
+package com.oozinoz.dublin;
+
+import com.oozinoz.machine.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * This class finds all the leaf-node machines in a composite,
+ * as RakeVisitor does, but walks the composite on a fork/join
+ * pool. Each task rakes its part of the composite into its own
+ * set, and the sets merge as the tasks finish.
+ * 
+ * @see RakeVisitor
+ */
+public class ParallelRakeVisitor extends ParallelMachineVisitor 
+{
+/**
+ * Create a visitor that runs on the common fork/join pool.
+ */
+public ParallelRakeVisitor()
+{
+}
+/**
+ * Create a visitor that runs on the given pool, and that walks
+ * composites with at most the given number of machines within
+ * a single task.
+ *
+ * @param pool the pool to run on
+ * @param threshold the most machines to walk within one task
+ */
+public ParallelRakeVisitor(ForkJoinPool pool, int threshold)
+{
+	super(pool, threshold);
+}
+/**
+ * Find all the leaf-node machines in a composite.
+ */
+public Set getLeaves(MachineComponent mc)
+{
+	return (Set) walk(mc);
+}
+/*
+ * Merge the smaller set into the larger one.
+ */
+protected Object combine(Object left, Object right)
+{
+	Set a = (Set) left;
+	Set b = (Set) right;
+	if (a.size() < b.size())
+	{
+		b.addAll(a);
+		return b;
+	}
+	a.addAll(b);
+	return a;
+}
+/*
+ * Start with an empty set.
+ */
+protected Object newResult()
+{
+	return new HashSet();
+}
+/*
+ * Add this machine to the set of leaf nodes.
+ */
+protected void visitMachine(Machine m, Object result)
+{
+	((Set) result).add(m);
+}
+}
@@ -43,4 +43,20 @@ public double f(double t)
 {
 	return Math.abs(source[0].f(t));
 }
+/**
+ * Put Math.abs() applied to the source function's values
+ * at the given times into <code>out</code>.
+ *
+ * @param in the times at which to evaluate this function
+ * @param out an array, at least as long as <code>in</code>,
+ *            to receive the results
+ */
+public void f(double[] in, double[] out)
+{
+	source[0].f(in, out);
+	for (int i = 0; i < in.length; i++)
+	{
+		out[i] = Math.abs(out[i]);
+	}
+}
 }
\ No newline at end of file
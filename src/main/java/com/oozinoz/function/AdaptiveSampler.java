@@ -0,0 +1,340 @@
+package com.oozinoz.function;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * An AdaptiveSampler object picks the times at which to plot
+ * a parametric curve. Instead of spacing a fixed number of
+ * points evenly, the sampler starts with a coarse, even grid
+ * and then keeps splitting the segment that strays furthest
+ * from the curve, until every segment is within a tolerance
+ * or the sampler has used up its budget of points.
+ * <p>
+ * The sampler measures how far a segment strays by evaluating
+ * the curve at the segment's middle time and finding that
+ * point's distance from the segment. It measures distances
+ * after scaling x and y by the factors that <code>setScale()
+ * </code> sets, so that a caller that plots the curve can
+ * give the tolerance in pixels.
+ * <p>
+ * The sampler evaluates each function at most twice per
+ * point it returns, so the cost of plotting an expensive
+ * function has a fixed bound, and the sampler spends that
+ * budget where the curve bends, such as near a peak.
+ */
+public class AdaptiveSampler 
+{
+	protected int startPoints = 33;
+	protected int maxPoints = 1000;
+	protected double tolerance = .5;
+	protected double xScale = 1;
+	protected double yScale = 1;
+	protected int nPoint;
+	protected int evaluations;
+	// points, linked in order of time
+	protected double[] t;
+	protected double[] x;
+	protected double[] y;
+	protected int[] next;
+	// the middle of the segment that starts at each point
+	protected double[] midT;
+	protected double[] midX;
+	protected double[] midY;
+	protected double[] error;
+	// segments, as a heap with the largest error on top
+	protected int[] heap;
+	protected int heapSize;
+	// the result, in order of time
+	protected double[] tOut = new double[0];
+	protected double[] xOut = new double[0];
+	protected double[] yOut = new double[0];
+
+/**
+ * Return the number of times the last sampling evaluated each
+ * function.
+ *
+ * @return the number of times the last sampling evaluated
+ *         each function
+ */
+public int getEvaluations()
+{
+	return evaluations;
+}
+/**
+ * Return the times of the points that the last sampling
+ * chose, in order. Only the first <code>sample()</code>
+ * entries are meaningful.
+ *
+ * @return the times of the sampled points
+ */
+public double[] getT()
+{
+	return tOut;
+}
+/**
+ * Return the x values of the points that the last sampling
+ * chose, in order of time.
+ *
+ * @return the x values of the sampled points
+ */
+public double[] getX()
+{
+	return xOut;
+}
+/**
+ * Return the y values of the points that the last sampling
+ * chose, in order of time.
+ *
+ * @return the y values of the sampled points
+ */
+public double[] getY()
+{
+	return yOut;
+}
+/**
+ * Return the most points that a sampling may return.
+ *
+ * @return the most points that a sampling may return
+ */
+public int getMaxPoints()
+{
+	return maxPoints;
+}
+/**
+ * Sample the curve that the given functions trace as t goes
+ * from 0 to 1.
+ *
+ * @param fx the x function
+ * @param fy the y function
+ * @return the number of points sampled
+ */
+public int sample(Function fx, Function fy)
+{
+	int n = Math.max(2, Math.min(startPoints, maxPoints));
+	allocate();
+	double[] ts = new double[n];
+	double[] xs = new double[n];
+	double[] ys = new double[n];
+	for (int i = 0; i < n; i++)
+	{
+		ts[i] = ((double) i) / (n - 1);
+	}
+	fx.f(ts, xs);
+	fy.f(ts, ys);
+	System.arraycopy(ts, 0, t, 0, n);
+	System.arraycopy(xs, 0, x, 0, n);
+	System.arraycopy(ys, 0, y, 0, n);
+	for (int i = 0; i < n - 1; i++)
+	{
+		next[i] = i + 1;
+		ts[i] = (t[i] + t[i + 1]) / 2;
+	}
+	next[n - 1] = -1;
+	fx.f(ts, xs);
+	fy.f(ts, ys);
+	nPoint = n;
+	evaluations = 2 * n - 1;
+	heapSize = 0;
+	for (int i = 0; i < n - 1; i++)
+	{
+		setMiddle(i, ts[i], xs[i], ys[i]);
+	}
+	while (heapSize > 0 && nPoint < maxPoints
+		&& error[heap[0]] > tolerance)
+	{
+		split(pop(), fx, fy);
+	}
+	return collect();
+}
+/**
+ * Set the most points that a sampling may return. The
+ * sampler evaluates each function at most twice this many
+ * times.
+ *
+ * @param maxPoints the most points that a sampling may
+ *                  return, at least 2
+ */
+public void setMaxPoints(int maxPoints)
+{
+	if (maxPoints < 2)
+	{
+		throw new IllegalArgumentException(
+			"A sampling needs at least 2 points");
+	}
+	this.maxPoints = maxPoints;
+}
+/**
+ * Set the factors by which the sampler scales x and y values
+ * before measuring distances. A plotting panel can pass its
+ * pixels per unit of x and y.
+ *
+ * @param xScale the factor to scale x values by
+ * @param yScale the factor to scale y values by
+ */
+public void setScale(double xScale, double yScale)
+{
+	this.xScale = xScale;
+	this.yScale = yScale;
+}
+/**
+ * Set the number of evenly spaced points that a sampling
+ * starts with. More points make it less likely that the
+ * sampler misses a feature narrower than the starting grid.
+ *
+ * @param startPoints the number of points to start with
+ */
+public void setStartPoints(int startPoints)
+{
+	this.startPoints = startPoints;
+}
+/**
+ * Set how far, in scaled units, a sampled segment may stray
+ * from the curve.
+ *
+ * @param tolerance how far a segment may stray from the curve
+ */
+public void setTolerance(double tolerance)
+{
+	this.tolerance = tolerance;
+}
+/*
+ * Make room for a sampling with the current budget.
+ */
+protected void allocate()
+{
+	if (t != null && t.length == maxPoints)
+	{
+		return;
+	}
+	t = new double[maxPoints];
+	x = new double[maxPoints];
+	y = new double[maxPoints];
+	next = new int[maxPoints];
+	midT = new double[maxPoints];
+	midX = new double[maxPoints];
+	midY = new double[maxPoints];
+	error = new double[maxPoints];
+	heap = new int[maxPoints];
+}
+/*
+ * Copy the points, in order of time, into the result arrays.
+ */
+protected int collect()
+{
+	if (tOut.length < nPoint)
+	{
+		tOut = new double[nPoint];
+		xOut = new double[nPoint];
+		yOut = new double[nPoint];
+	}
+	int k = 0;
+	for (int i = 0; i >= 0; i = next[i])
+	{
+		tOut[k] = t[i];
+		xOut[k] = x[i];
+		yOut[k] = y[i];
+		k++;
+	}
+	return k;
+}
+/*
+ * Record the middle of the segment that starts at point i,
+ * and queue the segment by how far the middle lies from it.
+ */
+protected void setMiddle(int i, double tm, double xm, double ym)
+{
+	int j = next[i];
+	midT[i] = tm;
+	midX[i] = xm;
+	midY[i] = ym;
+	double dx = (x[j] - x[i]) * xScale;
+	double dy = (y[j] - y[i]) * yScale;
+	double ex = (xm - x[i]) * xScale;
+	double ey = (ym - y[i]) * yScale;
+	double length = Math.sqrt(dx * dx + dy * dy);
+	double e = length > 0
+		? Math.abs(dx * ey - dy * ex) / length
+		: Math.sqrt(ex * ex + ey * ey);
+	// don't chase values we can't draw, or gaps too small to split
+	if (!(e <= Double.MAX_VALUE) || !(tm > t[i] && tm < t[j]))
+	{
+		e = 0;
+	}
+	error[i] = e;
+	push(i);
+}
+/*
+ * Make the middle of segment i a point, and measure the two
+ * segments that result.
+ */
+protected void split(int i, Function fx, Function fy)
+{
+	int p = nPoint++;
+	t[p] = midT[i];
+	x[p] = midX[i];
+	y[p] = midY[i];
+	next[p] = next[i];
+	next[i] = p;
+	double tm = (t[i] + t[p]) / 2;
+	setMiddle(i, tm, fx.f(tm), fy.f(tm));
+	tm = (t[p] + t[next[p]]) / 2;
+	setMiddle(p, tm, fx.f(tm), fy.f(tm));
+	evaluations += 2;
+}
+/*
+ * Add segment i to the heap.
+ */
+protected void push(int i)
+{
+	int k = heapSize++;
+	while (k > 0)
+	{
+		int parent = (k - 1) >> 1;
+		if (error[heap[parent]] >= error[i])
+		{
+			break;
+		}
+		heap[k] = heap[parent];
+		k = parent;
+	}
+	heap[k] = i;
+}
+/*
+ * Remove and return the segment with the largest error.
+ */
+protected int pop()
+{
+	int top = heap[0];
+	int last = heap[--heapSize];
+	int k = 0;
+	while (true)
+	{
+		int child = 2 * k + 1;
+		if (child >= heapSize)
+		{
+			break;
+		}
+		if (child + 1 < heapSize
+			&& error[heap[child + 1]] > error[heap[child]])
+		{
+			child++;
+		}
+		if (error[heap[child]] <= error[last])
+		{
+			break;
+		}
+		heap[k] = heap[child];
+		k = child;
+	}
+	heap[k] = last;
+	return top;
+}
+}
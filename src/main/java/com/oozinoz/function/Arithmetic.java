@@ -1,5 +1,7 @@
 package com.oozinoz.function;
 
+import java.util.*;
+
 /*
  * Copyright (c) 2001 Steven J. Metsker.
  * 
@@ -65,4 +67,73 @@ public double f(double t)
 			return 0;
 	}
 }
+/**
+ * Put the result of applying this object's arithmetic
+ * operator (+ - * /) to the source functions' values at the
+ * given times into <code>out</code>.
+ *
+ * @param in the times at which to evaluate this function
+ * @param out an array, at least as long as <code>in</code>,
+ *            to receive the results
+ */
+public void f(double[] in, double[] out)
+{
+	int n = in.length;
+	if ("+-*/".indexOf(operator) < 0)
+	{
+		Arrays.fill(out, 0, n, 0);
+		return;
+	}
+	source[0].f(in, out);
+	double[] b = borrow(n);
+	source[1].f(in, b);
+	switch (operator)
+	{
+		case '+' :
+			for (int i = 0; i < n; i++)
+			{
+				out[i] = out[i] + b[i];
+			}
+			break;
+		case '-' :
+			for (int i = 0; i < n; i++)
+			{
+				out[i] = out[i] - b[i];
+			}
+			break;
+		case '*' :
+			for (int i = 0; i < n; i++)
+			{
+				out[i] = out[i] * b[i];
+			}
+			break;
+		case '/' :
+			for (int i = 0; i < n; i++)
+			{
+				out[i] = out[i] / b[i];
+			}
+			break;
+	}
+	release(b);
+}
+/**
+ * Return true if the given object is an Arithmetic function
+ * with the same operator and equal sources.
+ *
+ * @return true if the given object is an Arithmetic function
+ *         with the same operator and equal sources
+ */
+public boolean equals(Object o)
+{
+	return super.equals(o) && operator == ((Arithmetic) o).operator;
+}
+/**
+ * Return a hash code that agrees with equals().
+ *
+ * @return a hash code that agrees with equals()
+ */
+public int hashCode()
+{
+	return 31 * super.hashCode() + operator;
+}
 }
\ No newline at end of file
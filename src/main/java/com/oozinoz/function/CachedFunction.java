@@ -0,0 +1,345 @@
+package com.oozinoz.function;
+
+import java.util.*;
+
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A CachedFunction object remembers the values of the
+ * function it wraps, so that evaluating the same time again,
+ * as a plot does each time it repaints, does not evaluate the
+ * wrapped function again.
+ * <p>
+ * The cache keeps times and values in two parallel arrays of
+ * primitives that it probes linearly, and holds a bounded
+ * number of entries. When the cache is full, it evicts an
+ * entry that it has not used recently, choosing it as a clock
+ * hand sweeps the table.
+ * <p>
+ * A cache can observe a parameter of the wrapped function,
+ * such as a Tpeak object, and forgets every value when the
+ * parameter changes. A cache can also round times to a
+ * multiple of a quantum, so that nearby times share a value.
+ * <p>
+ * A cache is not safe for use by several threads at once.
+ */
+public class CachedFunction extends Function implements Observer 
+{
+	/*
+	 * Marks an empty slot. Double.doubleToLongBits() never
+	 * returns this NaN pattern, so no time's key can match it.
+	 */
+	protected static final long EMPTY = 0x7ff0000000000001L;
+	public static final int DEFAULT_CAPACITY = 4096;
+	protected long[] keys;
+	protected double[] values;
+	protected boolean[] used;
+	protected int mask;
+	protected int capacity;
+	protected int size = 0;
+	protected int hand = 0;
+	protected double quantum = 0;
+	protected long hits = 0;
+	protected long misses = 0;
+	protected long evictions = 0;
+
+/**
+ * Construct a cache of the provided function's values, with
+ * room for a default number of entries.
+ *
+ * @param Function the function whose values to cache
+ */
+public CachedFunction(Function f)
+{
+	this(f, DEFAULT_CAPACITY);
+}
+/**
+ * Construct a cache of the provided function's values.
+ *
+ * @param Function the function whose values to cache
+ * @param int the most entries the cache may hold
+ */
+public CachedFunction(Function f, int capacity)
+{
+	super(f);
+	if (capacity < 1)
+	{
+		throw new IllegalArgumentException(
+			"A cache needs room for at least one entry");
+	}
+	this.capacity = capacity;
+	int length = 4;
+	while (length < capacity * 2)
+	{
+		length <<= 1;
+	}
+	keys = new long[length];
+	values = new double[length];
+	used = new boolean[length];
+	mask = length - 1;
+	Arrays.fill(keys, EMPTY);
+}
+/**
+ * Forget every cached value, as when a parameter of the
+ * wrapped function changes. This does not reset the
+ * statistics.
+ */
+public void clear()
+{
+	if (size > 0)
+	{
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(used, false);
+		size = 0;
+	}
+}
+/**
+ * Return the value of the wrapped function at time t, from
+ * the cache if it holds one.
+ *
+ * @param t the time function that goes 0 to 1 and that
+ *          other functions use as a parameter
+ *
+ * @return the value of the wrapped function at time t
+ */
+public double f(double t)
+{
+	t = quantize(t);
+	long key = Double.doubleToLongBits(t);
+	int i = find(key);
+	if (keys[i] == key)
+	{
+		hits++;
+		used[i] = true;
+		return values[i];
+	}
+	misses++;
+	double value = source[0].f(t);
+	put(key, value);
+	return value;
+}
+/**
+ * Put the values of the wrapped function at the given times
+ * into <code>out</code>, evaluating the times the cache does
+ * not hold in one batch.
+ */
+public void f(double[] in, double[] out)
+{
+	int[] missed = null;
+	int nMissed = 0;
+	for (int i = 0; i < in.length; i++)
+	{
+		double t = quantize(in[i]);
+		long key = Double.doubleToLongBits(t);
+		int j = find(key);
+		if (keys[j] == key)
+		{
+			hits++;
+			used[j] = true;
+			out[i] = values[j];
+			continue;
+		}
+		if (missed == null)
+		{
+			missed = new int[in.length - i];
+		}
+		missed[nMissed++] = i;
+	}
+	if (nMissed == 0)
+	{
+		return;
+	}
+	misses += nMissed;
+	double[] times = new double[nMissed];
+	double[] results = new double[nMissed];
+	for (int k = 0; k < nMissed; k++)
+	{
+		times[k] = quantize(in[missed[k]]);
+	}
+	source[0].f(times, results);
+	for (int k = 0; k < nMissed; k++)
+	{
+		out[missed[k]] = results[k];
+		long key = Double.doubleToLongBits(times[k]);
+		if (keys[find(key)] != key)
+		{
+			put(key, results[k]);
+		}
+	}
+}
+/**
+ * Return the number of evaluations that evicted an entry to
+ * make room for a new one.
+ *
+ * @return the number of evictions
+ */
+public long getEvictions()
+{
+	return evictions;
+}
+/**
+ * Return the number of evaluations that the cache answered.
+ *
+ * @return the number of cache hits
+ */
+public long getHits()
+{
+	return hits;
+}
+/**
+ * Return the number of evaluations that the cache passed to
+ * the wrapped function.
+ *
+ * @return the number of cache misses
+ */
+public long getMisses()
+{
+	return misses;
+}
+/**
+ * Return the number of values the cache holds.
+ *
+ * @return the number of values the cache holds
+ */
+public int getSize()
+{
+	return size;
+}
+/**
+ * Reset the hit, miss and eviction counts to zero.
+ */
+public void resetStatistics()
+{
+	hits = 0;
+	misses = 0;
+	evictions = 0;
+}
+/**
+ * Round times to the nearest multiple of the given quantum
+ * before looking them up or evaluating them, or set 0 to use
+ * times as they are. This forgets every cached value.
+ *
+ * @param quantum the spacing of the times to evaluate
+ */
+public void setQuantum(double quantum)
+{
+	this.quantum = quantum;
+	clear();
+}
+/**
+ * Forget every cached value when an observed parameter, such
+ * as a Tpeak object, changes.
+ *
+ * @param Observable the parameter that changed
+ * @param arg ignored
+ */
+public void update(Observable o, Object arg)
+{
+	clear();
+}
+/*
+ * Remove the entry in slot i, moving later entries of its
+ * probe run back so that lookups still find them.
+ */
+protected void delete(int i)
+{
+	int j = i;
+	while (true)
+	{
+		j = (j + 1) & mask;
+		if (keys[j] == EMPTY)
+		{
+			break;
+		}
+		int home = slot(keys[j]);
+		// move j to i unless j's home lies cyclically in (i, j]
+		if (i <= j ? (home <= i || home > j) : (home <= i && home > j))
+		{
+			keys[i] = keys[j];
+			values[i] = values[j];
+			used[i] = used[j];
+			i = j;
+		}
+	}
+	keys[i] = EMPTY;
+	used[i] = false;
+	size--;
+}
+/*
+ * Evict the entry the clock hand first finds unused since the
+ * hand last passed it.
+ */
+protected void evict()
+{
+	while (true)
+	{
+		int i = hand;
+		hand = (hand + 1) & mask;
+		if (keys[i] == EMPTY)
+		{
+			continue;
+		}
+		if (used[i])
+		{
+			used[i] = false;
+			continue;
+		}
+		delete(i);
+		evictions++;
+		return;
+	}
+}
+/*
+ * Return the slot that holds the given key, or the empty slot
+ * where it belongs.
+ */
+protected int find(long key)
+{
+	int i = slot(key);
+	while (keys[i] != key && keys[i] != EMPTY)
+	{
+		i = (i + 1) & mask;
+	}
+	return i;
+}
+/*
+ * Add a key that the cache does not hold, evicting an entry
+ * if the cache is full.
+ */
+protected void put(long key, double value)
+{
+	if (size == capacity)
+	{
+		evict();
+	}
+	int i = find(key);
+	keys[i] = key;
+	values[i] = value;
+	used[i] = false;
+	size++;
+}
+/*
+ * Round t to the nearest multiple of the quantum.
+ */
+protected double quantize(double t)
+{
+	return quantum > 0 ? Math.rint(t / quantum) * quantum : t;
+}
+/*
+ * Spread the bits of a key across the table.
+ */
+protected int slot(long key)
+{
+	long h = key * 0x9E3779B97F4A7C15L;
+	return (int) (h >>> 32) & mask;
+}
+}
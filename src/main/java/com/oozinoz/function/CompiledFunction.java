@@ -0,0 +1,330 @@
+package com.oozinoz.function;
+
+import java.util.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A CompiledFunction object compiles a tree of functions into
+ * Java bytecode, so that evaluating the function runs
+ * straight-line arithmetic rather than walking the tree and
+ * making a virtual call for each node.
+ * <p>
+ * The compiler knows the functions in this package. It
+ * compiles any other kind of function, including a subclass
+ * of a function in this package, into a call to that
+ * function's f() method, so compiling a tree never changes its
+ * value. A large tree compiles into several classes, each of
+ * which calls the classes for the subtrees that it leaves out,
+ * so that no compiled method grows too large for the virtual
+ * machine to optimize.
+ * <p>
+ * The compiled code is fixed when this object is built;
+ * compile the tree again if any of its functions change.
+ * 
+ * @see FunctionAssembler
+ */
+public class CompiledFunction extends Function 
+{
+	/**
+	 * The largest number of bytes of bytecode to put in one
+	 * compiled method.
+	 */
+	public static final int METHOD_LIMIT = 2000;
+	protected static final int T = 0;
+	protected static final int CONSTANT = 1;
+	protected static final int CALL = 2;
+	protected static final int ADD = 3;
+	protected static final int SUBTRACT = 4;
+	protected static final int MULTIPLY = 5;
+	protected static final int DIVIDE = 6;
+	protected static final int SIN = 7;
+	protected static final int COS = 8;
+	protected static final int EXP = 9;
+	protected static final int SQRT = 10;
+	protected static final int ABS = 11;
+	protected static final int SCALE = 12;
+	protected Function compiled;
+	protected Loader loader;
+	protected int classCount = 0;
+
+/*
+ * A class loader for the classes that one compilation
+ * generates. The classes can be unloaded once the
+ * CompiledFunction that made them is unreachable.
+ */
+protected static class Loader extends ClassLoader
+{
+	Loader()
+	{
+		super(Function.class.getClassLoader());
+	}
+	Class define(String name, byte[] b)
+	{
+		return defineClass(name, b, 0, b.length);
+	}
+}
+
+/**
+ * Compile the given function. If the virtual machine does not
+ * allow defining classes, this object evaluates the function
+ * as it is.
+ *
+ * @param Function the function to compile
+ */
+public CompiledFunction(Function f)
+{
+	super(f);
+	try
+	{
+		loader = new Loader();
+		compiled = compile(f);
+	}
+	catch (SecurityException e)
+	{
+		compiled = f;
+	}
+}
+/*
+ * Walk the tree in post-order with an explicit stack, so that
+ * deep trees compile, finding how many bytes of code each node
+ * needs. When a node needs more than METHOD_LIMIT bytes,
+ * compile its largest sources into classes of their own until
+ * it fits.
+ */
+protected Function compile(Function root)
+{
+	Map sizes = new IdentityHashMap();
+	Map cut = new IdentityHashMap();
+	Function[] nodes = new Function[16];
+	int[] next = new int[16];
+	int top = 0;
+	nodes[0] = root;
+	while (top >= 0)
+	{
+		Function node = nodes[top];
+		if (next[top] == 0 && sizes.containsKey(node))
+		{
+			top--;
+			continue;
+		}
+		int op = opcode(node);
+		int arity = arity(op, node);
+		if (next[top] < arity)
+		{
+			Function child = node.source[next[top]++];
+			if (++top == nodes.length)
+			{
+				nodes = Arrays.copyOf(nodes, top * 2);
+				next = Arrays.copyOf(next, top * 2);
+			}
+			nodes[top] = child;
+			next[top] = 0;
+			continue;
+		}
+		int size = FunctionAssembler.size(op, node);
+		for (int i = 0; i < arity; i++)
+		{
+			size += size(node.source[i], sizes, cut);
+		}
+		while (size > METHOD_LIMIT)
+		{
+			Function largest = null;
+			for (int i = 0; i < arity; i++)
+			{
+				Function c = node.source[i];
+				if (largest == null
+					|| size(c, sizes, cut) > size(largest, sizes, cut))
+				{
+					largest = c;
+				}
+			}
+			int before = size(largest, sizes, cut);
+			if (before <= FunctionAssembler.CALL_SIZE)
+			{
+				break;
+			}
+			cut.put(largest, generate(largest, cut));
+			size += FunctionAssembler.CALL_SIZE - before;
+		}
+		sizes.put(node, Integer.valueOf(size));
+		top--;
+	}
+	if (cut.containsKey(root))
+	{
+		return (Function) cut.get(root);
+	}
+	return generate(root, cut);
+}
+/*
+ * Return the number of bytes of code that a node needs, given
+ * the subtrees that have classes of their own.
+ */
+protected static int size(Function f, Map sizes, Map cut)
+{
+	if (cut.containsKey(f))
+	{
+		return FunctionAssembler.CALL_SIZE;
+	}
+	return ((Integer) sizes.get(f)).intValue();
+}
+/*
+ * Compile a subtree into a class of its own, calling the
+ * classes of any subtrees beneath it that have them.
+ */
+protected Function generate(Function root, Map cut)
+{
+	FunctionAssembler a = new FunctionAssembler();
+	Function[] nodes = new Function[16];
+	int[] next = new int[16];
+	int top = 0;
+	nodes[0] = root;
+	while (top >= 0)
+	{
+		Function node = nodes[top];
+		int op = node != root && cut.containsKey(node)
+			? CALL
+			: opcode(node);
+		if (op == CALL && node != root && cut.containsKey(node))
+		{
+			node = (Function) cut.get(node);
+		}
+		if (next[top] < arity(op, node))
+		{
+			Function child = node.source[next[top]++];
+			if (++top == nodes.length)
+			{
+				nodes = Arrays.copyOf(nodes, top * 2);
+				next = Arrays.copyOf(next, top * 2);
+			}
+			nodes[top] = child;
+			next[top] = 0;
+			continue;
+		}
+		a.emit(op, node);
+		top--;
+	}
+	String name =
+		"com.oozinoz.function.generated.Compiled" + classCount++;
+	try
+	{
+		Class c = loader.define(name, a.toClass(name));
+		return (Function) c
+			.getConstructor(new Class[] { Function[].class })
+			.newInstance(new Object[] { a.getCalls()});
+	}
+	catch (ReflectiveOperationException e)
+	{
+		throw new IllegalStateException(e.toString());
+	}
+}
+/*
+ * Return the number of sources that an instruction takes from
+ * the stack.
+ */
+protected static int arity(int op, Function f)
+{
+	return op < ADD ? 0 : f.source.length;
+}
+/*
+ * Return the instruction that computes the given function,
+ * given the values of its sources. Arithmetic with an unknown
+ * operator is always zero.
+ */
+protected static int opcode(Function f)
+{
+	Class c = f.getClass();
+	if (c == T.class)
+	{
+		return T;
+	}
+	if (c == Constant.class)
+	{
+		return CONSTANT;
+	}
+	if (c == Arithmetic.class)
+	{
+		switch (((Arithmetic) f).operator)
+		{
+			case '+' :
+				return ADD;
+			case '-' :
+				return SUBTRACT;
+			case '*' :
+				return MULTIPLY;
+			case '/' :
+				return DIVIDE;
+			default :
+				return CONSTANT;
+		}
+	}
+	if (c == Sin.class)
+	{
+		return SIN;
+	}
+	if (c == Cos.class)
+	{
+		return COS;
+	}
+	if (c == Exp.class)
+	{
+		return EXP;
+	}
+	if (c == Sqrt.class)
+	{
+		return SQRT;
+	}
+	if (c == Abs.class)
+	{
+		return ABS;
+	}
+	if (c == Scale.class)
+	{
+		return SCALE;
+	}
+	return CALL;
+}
+/**
+ * Return the number of classes that compiling the function
+ * generated.
+ *
+ * @return the number of classes that compiling the function
+ *         generated, or 0 if the function is not compiled
+ */
+public int getClassCount()
+{
+	return classCount;
+}
+/**
+ * Return the value of the compiled function at time t.
+ *
+ * @param t the time function that goes 0 to 1 and that
+ *          other functions use as a parameter
+ *
+ * @return the value of the compiled function at time t
+ */
+public double f(double t)
+{
+	return compiled.f(t);
+}
+/**
+ * Put the values of the compiled function at the given times
+ * into <code>out</code>.
+ *
+ * @param in the times at which to evaluate this function
+ * @param out an array, at least as long as <code>in</code>,
+ *            to receive the results
+ */
+public void f(double[] in, double[] out)
+{
+	compiled.f(in, out);
+}
+}
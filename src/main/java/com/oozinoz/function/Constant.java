@@ -1,5 +1,7 @@
 package com.oozinoz.function;
 
+import java.util.*;
+
 /*
  * Copyright (c) 2001 Steven J. Metsker.
  * 
@@ -40,5 +42,37 @@ public double f(double t)
 {
 	return constant;
 }
-
+/**
+ * Fill <code>out</code> with this object's constant value.
+ *
+ * @param in ignored, except for its length
+ * @param out an array, at least as long as <code>in</code>,
+ *            to receive the results
+ */
+public void f(double[] in, double[] out)
+{
+	Arrays.fill(out, 0, in.length, constant);
+}
+/**
+ * Return true if the given object is a Constant with the
+ * same value.
+ *
+ * @return true if the given object is a Constant with the
+ *         same value
+ */
+public boolean equals(Object o)
+{
+	return super.equals(o)
+		&& Double.doubleToLongBits(constant)
+			== Double.doubleToLongBits(((Constant) o).constant);
+}
+/**
+ * Return a hash code that agrees with equals().
+ *
+ * @return a hash code that agrees with equals()
+ */
+public int hashCode()
+{
+	return Double.hashCode(constant);
+}
 }
\ No newline at end of file
@@ -19,6 +19,14 @@ package com.oozinoz.function;
 public abstract class Function 
 {
 	protected Function[] source;
+	private static final ThreadLocal scratch = new ThreadLocal();
+	/**
+	 * The most arrays of one size that each thread keeps for
+	 * evaluating functions over arrays.
+	 */
+	public static final int MAX_FREE = 8;
+	// larger arrays are neither rounded up nor kept
+	protected static final int MAX_SIZE_CLASS = 20;
 
 /**
  * Construct a function that decorates the provided source
@@ -52,11 +60,19 @@ public Function(Function f)
  */
 public boolean equals(Object o)
 {
-	if (!getClass().equals(o.getClass()))
+	if (this == o)
+	{
+		return true;
+	}
+	if (o == null || !getClass().equals(o.getClass()))
 	{
 		return false;
 	}
 	Function f = (Function) o;
+	if (source.length != f.source.length)
+	{
+		return false;
+	}
 	for (int i = 0; i < source.length; i++)
 	{
 		if (!source[i].equals(f.source[i]))
@@ -67,6 +83,21 @@ public boolean equals(Object o)
 	return true;
 }
 
+/**
+ * Return a hash code that agrees with equals().
+ *
+ * @return a hash code that agrees with equals()
+ */
+public int hashCode()
+{
+	int h = getClass().getName().hashCode();
+	for (int i = 0; i < source.length; i++)
+	{
+		h = 31 * h + source[i].hashCode();
+	}
+	return h;
+}
+
 /**
  * Apply this object's represented function to the source
  * function(s) at the given time and return the result.
@@ -79,6 +110,109 @@ public boolean equals(Object o)
  */
 public abstract double f(double t);
 
+/**
+ * Apply this object's represented function at each of the
+ * given times, putting the results in the corresponding
+ * elements of <code>out</code>. Subclasses override this
+ * method to evaluate their source functions once for the
+ * whole array, and then to combine the results in simple
+ * loops.
+ *
+ * <p>
+ * Functions may write to <code>out</code> before they have read
+ * all of <code>in</code>, so the two must be different arrays.
+ *
+ * @param in the times at which to evaluate this function
+ * @param out an array, at least as long as <code>in</code> and
+ *            not <code>in</code> itself, to receive the results
+ */
+public void f(double[] in, double[] out)
+{
+	for (int i = 0; i < in.length; i++)
+	{
+		out[i] = f(in[i]);
+	}
+}
+
+/*
+ * The arrays that one thread keeps for reuse, in stacks by size
+ * class. Class k holds arrays of exactly 2^k doubles.
+ */
+protected static class Scratch
+{
+	final double[][][] arrays = new double[MAX_SIZE_CLASS + 1][][];
+	final int[] counts = new int[MAX_SIZE_CLASS + 1];
+}
+
+/*
+ * Return an array of at least n doubles for holding a source
+ * function's results. Each thread keeps a few of the arrays it
+ * releases, of each size, and reuses them.
+ */
+protected static double[] borrow(int n)
+{
+	int k = sizeClass(n);
+	if (k > MAX_SIZE_CLASS)
+	{
+		return new double[n];
+	}
+	Scratch s = scratch();
+	if (s.counts[k] == 0)
+	{
+		return new double[1 << k];
+	}
+	double[][] free = s.arrays[k];
+	double[] d = free[--s.counts[k]];
+	free[s.counts[k]] = null;
+	return d;
+}
+
+/*
+ * Give back an array from borrow(), for reuse by this thread.
+ * The thread keeps at most MAX_FREE arrays of each size, and
+ * drops any others.
+ */
+protected static void release(double[] d)
+{
+	int k = sizeClass(d.length);
+	if (k > MAX_SIZE_CLASS || d.length != 1 << k)
+	{
+		return;
+	}
+	Scratch s = scratch();
+	if (s.counts[k] == MAX_FREE)
+	{
+		return;
+	}
+	if (s.arrays[k] == null)
+	{
+		s.arrays[k] = new double[MAX_FREE][];
+	}
+	s.arrays[k][s.counts[k]++] = d;
+}
+
+/*
+ * Return the smallest k such that 2^k is at least n.
+ */
+protected static int sizeClass(int n)
+{
+	return n <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(n - 1);
+}
+
+/*
+ * Return this thread's scratch arrays.
+ */
+protected static Scratch scratch()
+{
+	Scratch s = (Scratch) scratch.get();
+	if (s == null)
+	{
+		s = new Scratch();
+		scratch.set(s);
+	}
+	return s;
+}
+
 /**
  * Return a textual representation of this function.
  *
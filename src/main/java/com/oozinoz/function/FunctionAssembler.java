@@ -0,0 +1,326 @@
+package com.oozinoz.function;
+
+import java.io.*;
+import java.util.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A FunctionAssembler object writes the class file for a
+ * subclass of Function whose f() method computes a compiled
+ * tree. The tree's nodes arrive in post-order, and each one
+ * becomes a few bytecode instructions that leave the node's
+ * value on the operand stack. The method has no branches.
+ * <p>
+ * Nodes that the class calls, rather than computes, become
+ * the new object's sources.
+ *
+ * @see CompiledFunction
+ */
+class FunctionAssembler 
+{
+	static final int CALL_SIZE = 12;
+	static final String FUNCTION = "com/oozinoz/function/Function";
+	static final String SOURCES = "[Lcom/oozinoz/function/Function;";
+	protected ByteArrayOutputStream pool = new ByteArrayOutputStream();
+	protected DataOutputStream poolOut = new DataOutputStream(pool);
+	protected Map entries = new HashMap();
+	protected int poolCount = 1;
+	protected ByteArrayOutputStream code = new ByteArrayOutputStream();
+	protected List calls = new ArrayList();
+	protected int depth = 0;
+	protected int maxDepth = 0;
+/*
+ * Return the number of bytes of code a node needs, apart from
+ * its sources.
+ */
+static int size(int op, Function f)
+{
+	switch (op)
+	{
+		case CompiledFunction.T :
+			return 1;
+		case CompiledFunction.CONSTANT :
+			return 3;
+		case CompiledFunction.CALL :
+			return CALL_SIZE;
+		case CompiledFunction.ADD :
+		case CompiledFunction.SUBTRACT :
+		case CompiledFunction.MULTIPLY :
+		case CompiledFunction.DIVIDE :
+			return 1;
+		default :
+			return 3;
+	}
+}
+/*
+ * Add the code for a node whose sources' values are on the
+ * stack.
+ */
+void emit(int op, Function f)
+{
+	switch (op)
+	{
+		case CompiledFunction.T :
+			code.write(0x27); // dload_1
+			push(1);
+			break;
+		case CompiledFunction.CONSTANT :
+			code.write(0x14); // ldc2_w
+			writeShort(doubleConstant(f.f(0)));
+			push(1);
+			break;
+		case CompiledFunction.CALL :
+			code.write(0x2a); // aload_0
+			code.write(0xb4); // getfield
+			writeShort(member(9, FUNCTION, "source", SOURCES));
+			code.write(0x11); // sipush
+			writeShort(calls.size());
+			code.write(0x32); // aaload
+			code.write(0x27); // dload_1
+			code.write(0xb6); // invokevirtual
+			writeShort(member(10, FUNCTION, "f", "(D)D"));
+			calls.add(f);
+			push(1);
+			break;
+		case CompiledFunction.ADD :
+			code.write(0x63); // dadd
+			push(-1);
+			break;
+		case CompiledFunction.SUBTRACT :
+			code.write(0x67); // dsub
+			push(-1);
+			break;
+		case CompiledFunction.MULTIPLY :
+			code.write(0x6b); // dmul
+			push(-1);
+			break;
+		case CompiledFunction.DIVIDE :
+			code.write(0x6f); // ddiv
+			push(-1);
+			break;
+		case CompiledFunction.SIN :
+			invokeMath("sin");
+			break;
+		case CompiledFunction.COS :
+			invokeMath("cos");
+			break;
+		case CompiledFunction.EXP :
+			invokeMath("exp");
+			break;
+		case CompiledFunction.SQRT :
+			invokeMath("sqrt");
+			break;
+		case CompiledFunction.ABS :
+			invokeMath("abs");
+			break;
+		case CompiledFunction.SCALE :
+			code.write(0xb8); // invokestatic
+			writeShort(
+				member(
+					10,
+					"com/oozinoz/function/Scale",
+					"scale",
+					"(DDDDD)D"));
+			push(-4);
+			break;
+	}
+}
+/*
+ * Return the functions that the compiled code calls.
+ */
+Function[] getCalls()
+{
+	return (Function[]) calls.toArray(new Function[0]);
+}
+/*
+ * Return the class file for a Function subclass with the
+ * given name, whose constructor takes the functions to call
+ * and whose f() method runs the code emitted so far.
+ */
+byte[] toClass(String name)
+{
+	try
+	{
+		String internal = name.replace('.', '/');
+		int thisClass = classRef(internal);
+		int superClass = classRef(FUNCTION);
+		int init = member(10, FUNCTION, "<init>", "(" + SOURCES + ")V");
+		int initName = utf8("<init>");
+		int initType = utf8("(" + SOURCES + ")V");
+		int fName = utf8("f");
+		int fType = utf8("(D)D");
+		int codeName = utf8("Code");
+		code.write(0xaf); // dreturn
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);
+		out.writeShort(52);
+		out.writeShort(poolCount);
+		pool.writeTo(out);
+		out.writeShort(0x0031); // public final super
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(0);
+		out.writeShort(0);
+		out.writeShort(2);
+		// aload_0, aload_1, invokespecial, return
+		byte[] initCode =
+			{ 0x2a, 0x2b, (byte) 0xb7, (byte) (init >> 8), (byte) init, (byte) 0xb1 };
+		writeMethod(out, 0x0001, initName, initType, codeName, 2, 2, initCode);
+		writeMethod(
+			out, 0x0011, fName, fType, codeName,
+			2 * maxDepth + 4, 3, code.toByteArray());
+		out.writeShort(0);
+		return bytes.toByteArray();
+	}
+	catch (IOException e)
+	{
+		throw new IllegalStateException(e.toString());
+	}
+}
+/*
+ * Write a method with a Code attribute.
+ */
+protected void writeMethod(
+	DataOutputStream out,
+	int access,
+	int name,
+	int type,
+	int codeName,
+	int maxStack,
+	int maxLocals,
+	byte[] body)
+	throws IOException 
+{
+	out.writeShort(access);
+	out.writeShort(name);
+	out.writeShort(type);
+	out.writeShort(1);
+	out.writeShort(codeName);
+	out.writeInt(12 + body.length);
+	out.writeShort(maxStack);
+	out.writeShort(maxLocals);
+	out.writeInt(body.length);
+	out.write(body);
+	out.writeShort(0);
+	out.writeShort(0);
+}
+/*
+ * Call a Math method that takes and returns a double.
+ */
+protected void invokeMath(String name)
+{
+	code.write(0xb8); // invokestatic
+	writeShort(member(10, "java/lang/Math", name, "(D)D"));
+}
+/*
+ * Track the depth of the operand stack, in doubles.
+ */
+protected void push(int n)
+{
+	depth += n;
+	maxDepth = Math.max(maxDepth, depth);
+}
+protected void writeShort(int i)
+{
+	code.write(i >> 8);
+	code.write(i);
+}
+/*
+ * The constant pool: each method returns the index of an
+ * entry, adding the entry if it is new.
+ */
+protected int utf8(String s)
+{
+	Object key = "U" + s;
+	Integer index = (Integer) entries.get(key);
+	if (index == null)
+	{
+		index = add(key, 1, 1);
+		try
+		{
+			poolOut.writeUTF(s);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e.toString());
+		}
+	}
+	return index.intValue();
+}
+protected int classRef(String internal)
+{
+	int name = utf8(internal);
+	return entry("C" + internal, 7, name, -1, 1);
+}
+protected int member(int tag, String owner, String name, String type)
+{
+	int ownerIndex = classRef(owner);
+	int nameAndType =
+		entry("N" + name + ":" + type, 12, utf8(name), utf8(type), 1);
+	return entry(
+		tag + owner + "." + name + ":" + type,
+		tag,
+		ownerIndex,
+		nameAndType,
+		1);
+}
+protected int doubleConstant(double d)
+{
+	long bits = Double.doubleToRawLongBits(d);
+	return entry(
+		"D" + bits, 6, (int) (bits >>> 32), (int) bits, 2);
+}
+/*
+ * Add an entry made of a tag and one or two numbers, which are
+ * indexes that take two bytes each, or the halves of a double.
+ */
+protected int entry(Object key, int tag, int a, int b, int slots)
+{
+	Integer index = (Integer) entries.get(key);
+	if (index != null)
+	{
+		return index.intValue();
+	}
+	index = add(key, tag, slots);
+	try
+	{
+		if (tag == 6)
+		{
+			poolOut.writeInt(a);
+			poolOut.writeInt(b);
+		}
+		else
+		{
+			poolOut.writeShort(a);
+			if (b >= 0)
+			{
+				poolOut.writeShort(b);
+			}
+		}
+	}
+	catch (IOException e)
+	{
+		throw new IllegalStateException(e.toString());
+	}
+	return index.intValue();
+}
+protected Integer add(Object key, int tag, int slots)
+{
+	Integer index = Integer.valueOf(poolCount);
+	poolCount += slots;
+	entries.put(key, index);
+	pool.write(tag);
+	return index;
+}
+}
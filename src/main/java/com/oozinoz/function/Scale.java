@@ -60,6 +60,52 @@ public double f(double t)
 	double aTo = source[2].f(t);
 	double bFrom = source[3].f(t);
 	double bTo = source[4].f(t);
+	return scale(aFrom, a, aTo, bFrom, bTo);
+}
+/**
+ * Put "b", as a linear function that goes from bFrom to bTo
+ * as "a" goes from aFrom to aTo, at each of the given times
+ * into <code>out</code>.
+ *
+ * @param in the times at which to evaluate this function
+ * @param out an array, at least as long as <code>in</code>,
+ *            to receive the results
+ */
+public void f(double[] in, double[] out)
+{
+	int n = in.length;
+	double[] aFrom = borrow(n);
+	double[] aTo = borrow(n);
+	double[] bFrom = borrow(n);
+	double[] bTo = borrow(n);
+	source[0].f(in, aFrom);
+	source[1].f(in, out);
+	source[2].f(in, aTo);
+	source[3].f(in, bFrom);
+	source[4].f(in, bTo);
+	for (int i = 0; i < n; i++)
+	{
+		out[i] = scale(aFrom[i], out[i], aTo[i], bFrom[i], bTo[i]);
+	}
+	release(aFrom);
+	release(aTo);
+	release(bFrom);
+	release(bTo);
+}
+/**
+ * Return "b" as a linear function that goes from bFrom
+ * to bTo as "a" goes from aFrom to aTo.
+ *
+ * @return "b" as a linear function that goes from bFrom
+ *         to bTo as "a" goes from aFrom to aTo
+ */
+public static double scale(
+	double aFrom,
+	double a,
+	double aTo,
+	double bFrom,
+	double bTo)
+{
 	double denom = aTo - aFrom;
 	if (denom == 0)
 	{
@@ -0,0 +1,367 @@
+package com.oozinoz.function;
+
+import java.util.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A Simplifier object rewrites a tree of functions into a
+ * smaller tree with the same values. The simplifier:
+ * <ul>
+ * <li>folds functions of constants into constants,
+ * <li>removes identities, such as multiplying by 1, adding
+ *     or subtracting 0, dividing by 1, and taking the
+ *     absolute value of an absolute value,
+ * <li>merges a Scale of a Scale, when both have constant
+ *     ranges, into a single Scale, and
+ * <li>shares one copy of subtrees that are equal, according
+ *     to Function.equals(), among the places that use them.
+ * </ul>
+ * A function that the simplifier leaves as it is counts as
+ * equal only to itself, since the simplifier does not look
+ * beneath it.
+ * The new tree gives the same values as the old one, except
+ * that adding 0 may turn a negative zero positive, and that
+ * a merged Scale may round its last bit differently.
+ * <p>
+ * The simplifier rewrites only the functions in this package,
+ * and leaves any other kind of function, and the tree beneath
+ * it, as it is.
+ */
+public class Simplifier 
+{
+	protected int removed = 0;
+	protected Map done = new IdentityHashMap();
+	protected Map shared = new HashMap();
+
+/*
+ * A key for a function whose sources are already shared. Two
+ * keys are equal if their functions have the same class, the
+ * same value or operator, and the very same sources, so
+ * comparing keys never walks the trees beneath them.
+ */
+protected static class Key
+{
+	final Function f;
+	final int hash;
+	Key(Function f)
+	{
+		this.f = f;
+		int h = f.getClass().hashCode();
+		if (isConstant(f))
+		{
+			h = 31 * h + Double.hashCode(f.f(0));
+		}
+		if (f.getClass() == Arithmetic.class)
+		{
+			h = 31 * h + ((Arithmetic) f).operator;
+		}
+		for (int i = 0; i < f.source.length; i++)
+		{
+			h = 31 * h + System.identityHashCode(f.source[i]);
+		}
+		hash = h;
+	}
+	public int hashCode()
+	{
+		return hash;
+	}
+	public boolean equals(Object o)
+	{
+		Function g = ((Key) o).f;
+		if (f.getClass() != g.getClass()
+			|| f.source.length != g.source.length)
+		{
+			return false;
+		}
+		if (isConstant(f)
+			&& Double.doubleToLongBits(f.f(0))
+				!= Double.doubleToLongBits(g.f(0)))
+		{
+			return false;
+		}
+		if (f.getClass() == Arithmetic.class
+			&& ((Arithmetic) f).operator != ((Arithmetic) g).operator)
+		{
+			return false;
+		}
+		for (int i = 0; i < f.source.length; i++)
+		{
+			if (f.source[i] != g.source[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
+
+/**
+ * Return a simpler function with the same values as the
+ * given one.
+ *
+ * @param f the function to simplify
+ * @return a simpler function with the same values
+ */
+public Function simplify(Function f)
+{
+	int before = countNodes(f);
+	Function[] nodes = new Function[16];
+	int[] next = new int[16];
+	int top = 0;
+	nodes[0] = f;
+	while (top >= 0)
+	{
+		Function node = nodes[top];
+		boolean known = isKnown(node);
+		if (done.containsKey(node))
+		{
+			top--;
+			continue;
+		}
+		if (known && next[top] < node.source.length)
+		{
+			Function child = node.source[next[top]++];
+			if (++top == nodes.length)
+			{
+				nodes = Arrays.copyOf(nodes, top * 2);
+				next = Arrays.copyOf(next, top * 2);
+			}
+			nodes[top] = child;
+			next[top] = 0;
+			continue;
+		}
+		done.put(node, known ? share(rewrite(node)) : node);
+		top--;
+	}
+	Function result = (Function) done.get(f);
+	removed += before - countNodes(result);
+	return result;
+}
+/**
+ * Return the number of nodes that this simplifier has removed
+ * from the functions it has simplified.
+ *
+ * @return the number of nodes removed
+ */
+public int getRemoved()
+{
+	return removed;
+}
+/**
+ * Return the number of distinct nodes in a function tree,
+ * counting a node that several functions share once.
+ *
+ * @param f the function whose nodes to count
+ * @return the number of distinct nodes in the tree
+ */
+public static int countNodes(Function f)
+{
+	Map seen = new IdentityHashMap();
+	List stack = new ArrayList();
+	stack.add(f);
+	while (!stack.isEmpty())
+	{
+		Function node = (Function) stack.remove(stack.size() - 1);
+		if (seen.put(node, node) == null)
+		{
+			stack.addAll(Arrays.asList(node.source));
+		}
+	}
+	return seen.size();
+}
+/*
+ * Return true if this is one of the functions in this package
+ * that the simplifier knows how to rebuild.
+ */
+protected static boolean isKnown(Function f)
+{
+	Class c = f.getClass();
+	return c == T.class
+		|| c == Constant.class
+		|| c == Arithmetic.class
+		|| c == Sin.class
+		|| c == Cos.class
+		|| c == Exp.class
+		|| c == Sqrt.class
+		|| c == Abs.class
+		|| c == Scale.class;
+}
+/*
+ * Return the shared copy of a function equal to the given one,
+ * making the given function the shared copy if there is none.
+ */
+protected Function share(Function f)
+{
+	Key key = new Key(f);
+	Function s = (Function) shared.get(key);
+	if (s == null)
+	{
+		shared.put(key, f);
+		return f;
+	}
+	return s;
+}
+/*
+ * Return the simplest function equal to the given function
+ * of simplified sources.
+ */
+protected Function rewrite(Function node)
+{
+	Function[] s = new Function[node.source.length];
+	boolean constant = true;
+	for (int i = 0; i < s.length; i++)
+	{
+		s[i] = (Function) done.get(node.source[i]);
+		constant &= isConstant(s[i]);
+	}
+	Class c = node.getClass();
+	if (c == T.class || c == Constant.class)
+	{
+		return node;
+	}
+	if (c == Arithmetic.class)
+	{
+		char op = ((Arithmetic) node).operator;
+		if ("+-*/".indexOf(op) < 0)
+		{
+			return new Constant(0);
+		}
+		if (constant)
+		{
+			return new Constant(new Arithmetic(op, s[0], s[1]).f(0));
+		}
+		if ((op == '*' && is(s[0], 1)) || (op == '+' && is(s[0], 0)))
+		{
+			return s[1];
+		}
+		if (((op == '*' || op == '/') && is(s[1], 1))
+			|| ((op == '+' || op == '-') && is(s[1], 0)))
+		{
+			return s[0];
+		}
+		return same(node, s) ? node : new Arithmetic(op, s[0], s[1]);
+	}
+	if (c == Scale.class)
+	{
+		return scale(node, s);
+	}
+	Function f;
+	if (c == Abs.class && s[0].getClass() == Abs.class)
+	{
+		return s[0];
+	}
+	if (same(node, s))
+	{
+		f = node;
+	}
+	else if (c == Sin.class)
+	{
+		f = new Sin(s[0]);
+	}
+	else if (c == Cos.class)
+	{
+		f = new Cos(s[0]);
+	}
+	else if (c == Exp.class)
+	{
+		f = new Exp(s[0]);
+	}
+	else if (c == Sqrt.class)
+	{
+		f = new Sqrt(s[0]);
+	}
+	else
+	{
+		f = new Abs(s[0]);
+	}
+	return constant ? new Constant(f.f(0)) : f;
+}
+/*
+ * Simplify a Scale, given its simplified sources: aFrom, a,
+ * aTo, bFrom and bTo.
+ */
+protected Function scale(Function node, Function[] s)
+{
+	boolean ends =
+		isConstant(s[0])
+			&& isConstant(s[2])
+			&& isConstant(s[3])
+			&& isConstant(s[4]);
+	if (ends
+		&& (isConstant(s[1])
+			|| s[2].f(0) - s[0].f(0) == 0))
+	{
+		return new Constant(
+			Scale.scale(
+				s[0].f(0), s[1].f(0), s[2].f(0), s[3].f(0), s[4].f(0)));
+	}
+	if (ends && s[1].getClass() == Scale.class)
+	{
+		Function[] inner = s[1].source;
+		if (isConstant(inner[0])
+			&& isConstant(inner[2])
+			&& isConstant(inner[3])
+			&& isConstant(inner[4])
+			&& inner[2].f(0) - inner[0].f(0) != 0)
+		{
+			double aFrom = s[0].f(0);
+			double aTo = s[2].f(0);
+			double bFrom = s[3].f(0);
+			double bTo = s[4].f(0);
+			return new Scale(
+				inner[0],
+				inner[1],
+				inner[2],
+				share(
+					new Constant(
+						Scale.scale(aFrom, inner[3].f(0), aTo, bFrom, bTo))),
+				share(
+					new Constant(
+						Scale.scale(aFrom, inner[4].f(0), aTo, bFrom, bTo))));
+		}
+	}
+	if (same(node, s))
+	{
+		return node;
+	}
+	return new Scale(s[0], s[1], s[2], s[3], s[4]);
+}
+/*
+ * Return true if the function is a Constant, and not a
+ * subclass whose value might change.
+ */
+protected static boolean isConstant(Function f)
+{
+	return f.getClass() == Constant.class;
+}
+/*
+ * Return true if the function is a constant equal to d.
+ */
+protected static boolean is(Function f, double d)
+{
+	return isConstant(f) && f.f(0) == d;
+}
+/*
+ * Return true if the simplified sources are the node's own.
+ */
+protected static boolean same(Function node, Function[] s)
+{
+	for (int i = 0; i < s.length; i++)
+	{
+		if (s[i] != node.source[i])
+		{
+			return false;
+		}
+	}
+	return true;
+}
+}
@@ -34,4 +34,15 @@ public double f(double t)
 {
 	return t;
 }
+/**
+ * Copy the given times into <code>out</code>.
+ *
+ * @param in the current times in the function
+ * @param out an array, at least as long as <code>in</code>,
+ *            to receive the times
+ */
+public void f(double[] in, double[] out)
+{
+	System.arraycopy(in, 0, out, 0, in.length);
+}
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.oozinoz.io;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A CaseFilter object changes the case of characters, one
+ * block at a time. In parallel mode, the filter splits large
+ * blocks into chunks on a fork/join pool, and passes the
+ * converted block along only when every chunk is done, so
+ * text leaves the filter in order.
+ * <p>
+ * Chunks end just after whitespace where they can. A filter
+ * whose conversion depends on the previous character, such as
+ * a TitleCaseFilter, reads that character from the block.
+ * Changing case never changes whether a character is
+ * whitespace, so it does not matter whether another chunk has
+ * converted that character yet.
+ */
+public abstract class CaseFilter extends OozinozFilter 
+{
+	/**
+	 * Chunks of at most this many characters are converted
+	 * within a single task.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1 << 15;
+	/**
+	 * In parallel mode, the filter takes in blocks of up to
+	 * this many characters.
+	 */
+	public static final int PARALLEL_BUFFER_SIZE = 1 << 20;
+	protected ForkJoinPool pool;
+	protected int threshold = DEFAULT_THRESHOLD;
+
+/*
+ * A task that converts one chunk of a block.
+ */
+@SuppressWarnings("serial")
+protected class ConvertTask extends RecursiveAction
+{
+	final char[] cbuf;
+	final int from;
+	final int to;
+	final boolean atStart;
+	ConvertTask(char[] cbuf, int from, int to, boolean atStart)
+	{
+		this.cbuf = cbuf;
+		this.from = from;
+		this.to = to;
+		this.atStart = atStart;
+	}
+	protected void compute()
+	{
+		if (to - from <= threshold)
+		{
+			convert(cbuf, from, to, atStart);
+			return;
+		}
+		int mid = split(cbuf, from, to);
+		invokeAll(
+			new ConvertTask(cbuf, from, mid, atStart),
+			new ConvertTask(cbuf, mid, to, false));
+	}
+}
+
+protected CaseFilter(Writer out)
+{
+	super(out);
+}
+/**
+ * Change the case of the characters from one index up to
+ * another, in place.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param from the index of the first character to convert
+ * @param to the index after the last character to convert
+ * @param atStart true if <code>from</code> starts the block;
+ *                otherwise the character before
+ *                <code>from</code> precedes the chunk
+ */
+protected abstract void convert(
+	char[] cbuf, int from, int to, boolean atStart);
+/**
+ * Decide whether or not to convert large blocks in parallel,
+ * on the common fork/join pool.
+ *
+ * @param parallel If true, large blocks will be converted
+ *                 in parallel.
+ */
+public void setParallel(boolean parallel)
+{
+	setParallel(
+		parallel ? ForkJoinPool.commonPool() : null,
+		DEFAULT_THRESHOLD);
+}
+/**
+ * Convert large blocks in parallel, on the given pool.
+ *
+ * @param pool the pool to run on, or null to convert blocks
+ *             in the writing thread
+ * @param threshold the size of chunk to convert within a
+ *                  single task
+ */
+public void setParallel(ForkJoinPool pool, int threshold)
+{
+	if (threshold < 1)
+	{
+		throw new IllegalArgumentException(
+			"Threshold must be at least 1");
+	}
+	this.pool = pool;
+	this.threshold = threshold;
+	int size = pool == null ? BUFFER_SIZE : PARALLEL_BUFFER_SIZE;
+	if (size != bufferSize)
+	{
+		bufferSize = size;
+		buf = null;
+	}
+}
+/*
+ * Return an index near the middle of the chunk that follows
+ * whitespace, or the middle itself if there is none.
+ */
+protected static int split(char[] cbuf, int from, int to)
+{
+	int mid = (from + to) >>> 1;
+	for (int i = mid; i < to; i++)
+	{
+		if (Character.isWhitespace(cbuf[i - 1]))
+		{
+			return i;
+		}
+	}
+	for (int i = mid - 1; i > from; i--)
+	{
+		if (Character.isWhitespace(cbuf[i - 1]))
+		{
+			return i;
+		}
+	}
+	return mid;
+}
+/**
+ * Change the case of a block of characters in place and pass
+ * it to the underlying stream.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param  off Offset from which to start reading characters
+ * @param  len Number of characters to be written
+ *
+ * @throws IOException if an I/O error occurs
+ */
+protected void writeBuffer(char cbuf[], int off, int len)
+	throws IOException {
+	if (pool != null && len > threshold)
+	{
+		pool.invoke(new ConvertTask(cbuf, off, off + len, true));
+	}
+	else
+	{
+		convert(cbuf, off, off + len, true);
+	}
+	passDown(cbuf, off, len);
+}
+}
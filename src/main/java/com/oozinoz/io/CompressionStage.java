@@ -0,0 +1,184 @@
+package com.oozinoz.io;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A CompressionStage object wraps compressing and
+ * decompressing streams around byte streams, in gzip or zlib
+ * ("deflate") format, with a given compression level and
+ * buffer size. In parallel mode, the compressing streams
+ * compress blocks of their input on a fork/join pool.
+ * <p>
+ * A FilePipeline object can use a stage to compress the text
+ * it writes. For example:
+ * <blockquote><pre>
+ * CompressionStage gzip = new CompressionStage();
+ * gzip.setParallel(true);
+ * pipeline.setCompression(gzip);
+ * </pre></blockquote>
+ *
+ * @see ParallelDeflateOutputStream
+ * @see FilePipeline#setCompression(CompressionStage)
+ */
+public class CompressionStage 
+{
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	protected int level = Deflater.DEFAULT_COMPRESSION;
+	protected int bufferSize = DEFAULT_BUFFER_SIZE;
+	protected boolean gzip = true;
+	protected ForkJoinPool pool;
+	protected int blockSize = ParallelDeflateOutputStream.DEFAULT_BLOCK_SIZE;
+/**
+ * Return a stream that compresses what it receives and passes
+ * the result to the given stream. Closing the returned stream
+ * closes the given stream.
+ *
+ * @param out the stream to write compressed bytes to
+ * @return a stream that compresses what it receives
+ * @throws IOException if an I/O error occurs
+ */
+public OutputStream compress(OutputStream out) throws IOException 
+{
+	if (pool != null)
+	{
+		return new ParallelDeflateOutputStream(
+			out, pool, level, blockSize, gzip);
+	}
+	if (gzip)
+	{
+		return new GZIPOutputStream(out, bufferSize)
+		{
+			{
+				def.setLevel(level);
+			}
+		};
+	}
+	return new DeflaterOutputStream(out, new Deflater(level), bufferSize)
+	{
+		public void close() throws IOException
+		{
+			try
+			{
+				super.close();
+			}
+			finally
+			{
+				def.end();
+			}
+		}
+	};
+}
+/**
+ * Return a stream that decompresses the given stream.
+ *
+ * @param in a stream of compressed bytes
+ * @return a stream of the decompressed bytes
+ * @throws IOException if an I/O error occurs
+ */
+public InputStream decompress(InputStream in) throws IOException 
+{
+	if (gzip)
+	{
+		return new GZIPInputStream(in, bufferSize);
+	}
+	return new InflaterInputStream(in, new Inflater(), bufferSize)
+	{
+		public void close() throws IOException
+		{
+			try
+			{
+				super.close();
+			}
+			finally
+			{
+				inf.end();
+			}
+		}
+	};
+}
+/**
+ * Set the size of the buffers that compressing and
+ * decompressing streams use.
+ *
+ * @param bufferSize the size of the buffers, in bytes
+ */
+public void setBufferSize(int bufferSize)
+{
+	if (bufferSize < 1)
+	{
+		throw new IllegalArgumentException(
+			"Buffer size must be at least 1");
+	}
+	this.bufferSize = bufferSize;
+}
+/**
+ * Decide whether to use gzip format or zlib format.
+ *
+ * @param gzip If true, streams will use gzip format;
+ *             otherwise, they will use zlib format.
+ */
+public void setGzip(boolean gzip)
+{
+	this.gzip = gzip;
+}
+/**
+ * Set the compression level.
+ *
+ * @param level a level from Deflater.NO_COMPRESSION to
+ *              Deflater.BEST_COMPRESSION, or
+ *              Deflater.DEFAULT_COMPRESSION
+ */
+public void setLevel(int level)
+{
+	if ((level < 0 || level > 9)
+		&& level != Deflater.DEFAULT_COMPRESSION)
+	{
+		throw new IllegalArgumentException(
+			"Invalid compression level: " + level);
+	}
+	this.level = level;
+}
+/**
+ * Decide whether or not to compress in parallel, on the
+ * common fork/join pool.
+ *
+ * @param parallel If true, compressing streams will compress
+ *                 blocks in parallel.
+ */
+public void setParallel(boolean parallel)
+{
+	setParallel(
+		parallel ? ForkJoinPool.commonPool() : null,
+		ParallelDeflateOutputStream.DEFAULT_BLOCK_SIZE);
+}
+/**
+ * Compress in parallel, on the given pool.
+ *
+ * @param pool the pool to run on, or null to compress in the
+ *             writing thread
+ * @param blockSize the number of bytes to compress in each
+ *                  task
+ */
+public void setParallel(ForkJoinPool pool, int blockSize)
+{
+	if (blockSize < 1)
+	{
+		throw new IllegalArgumentException(
+			"Block size must be at least 1");
+	}
+	this.pool = pool;
+	this.blockSize = blockSize;
+}
+}
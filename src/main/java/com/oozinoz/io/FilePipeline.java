@@ -0,0 +1,192 @@
+package com.oozinoz.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A FilePipeline object runs a chain of filters over a file,
+ * writing the result to another file. The pipeline maps the
+ * input file into memory, decodes it in large chunks into a
+ * char array that it reuses, and writes the filtered text
+ * through a FileChannel. For example:
+ * <blockquote><pre>
+ * new FilePipeline(new FilterChain()
+ * {
+ *     public Writer wrap(Writer out)
+ *     {
+ *         return new WrapFilter(
+ *             new BufferedWriter(new TitleCaseFilter(out)), 40);
+ *     }
+ * }).run(in, out);
+ * </pre></blockquote>
+ * The pipeline passes line breaks along as they appear in
+ * the input file. If the pipeline has a compression stage, it
+ * compresses the text it writes.
+ *
+ * @see FilterChain
+ * @see CompressionStage
+ */
+public class FilePipeline 
+{
+	public static final int CHUNK_SIZE = 1 << 16;
+	public static final int MAP_SIZE = 1 << 26;
+	protected FilterChain chain;
+	protected Charset charset;
+	protected int chunkSize;
+	protected int mapSize;
+	protected CompressionStage compression;
+/**
+ * Construct a pipeline that runs the given chain of filters
+ * over files in the platform's default character set.
+ *
+ * @param chain the filters to run
+ */
+public FilePipeline(FilterChain chain)
+{
+	this(chain, Charset.defaultCharset(), CHUNK_SIZE, MAP_SIZE);
+}
+/**
+ * Construct a pipeline that runs the given chain of filters
+ * over files in the given character set.
+ *
+ * @param chain the filters to run
+ * @param charset the character set of the input and output
+ *                files
+ * @param chunkSize the number of characters to decode and
+ *                  pass to the filters at a time
+ * @param mapSize the number of bytes of the input file to
+ *                map into memory at a time
+ */
+public FilePipeline(
+	FilterChain chain, Charset charset, int chunkSize, int mapSize)
+{
+	if (chunkSize < 1 || mapSize < 16)
+	{
+		throw new IllegalArgumentException(
+			"Chunks need at least 1 character and maps at least 16 bytes");
+	}
+	this.chain = chain;
+	this.charset = charset;
+	this.chunkSize = chunkSize;
+	this.mapSize = mapSize;
+}
+/**
+ * Filter the given input file, writing the result to the
+ * given output file.
+ *
+ * @param in the file to read
+ * @param out the file to write, replacing any contents
+ * @throws IOException if an I/O error occurs, or if the
+ *         input file is not valid in this pipeline's
+ *         character set
+ */
+public void run(File in, File out) throws IOException 
+{
+	try (FileChannel source =
+			FileChannel.open(in.toPath(), StandardOpenOption.READ);
+		FileChannel sink =
+			FileChannel.open(
+				out.toPath(),
+				StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING))
+	{
+		Writer w = chain.wrap(newWriter(sink));
+		run(source, w);
+		w.close();
+	}
+}
+/*
+ * Return a writer that encodes text, compresses it if this
+ * pipeline has a compression stage, and writes it to the
+ * given channel.
+ */
+protected Writer newWriter(FileChannel sink) throws IOException 
+{
+	if (compression == null)
+	{
+		return Channels.newWriter(sink, charset.newEncoder(), chunkSize);
+	}
+	return new OutputStreamWriter(
+		compression.compress(Channels.newOutputStream(sink)),
+		charset.newEncoder());
+}
+/*
+ * Map the source a window at a time, and decode each window
+ * into the writer. A character whose bytes straddle the end
+ * of a window starts the next window.
+ */
+protected void run(FileChannel source, Writer w) throws IOException 
+{
+	CharsetDecoder decoder = charset.newDecoder();
+	char[] chars = new char[chunkSize];
+	CharBuffer cb = CharBuffer.wrap(chars);
+	long size = source.size();
+	long pos = 0;
+	while (true)
+	{
+		long n = Math.min(mapSize, size - pos);
+		boolean last = pos + n == size;
+		MappedByteBuffer bb =
+			source.map(FileChannel.MapMode.READ_ONLY, pos, n);
+		while (true)
+		{
+			CoderResult r = decoder.decode(bb, cb, last);
+			if (r.isError())
+			{
+				r.throwException();
+			}
+			drain(cb, chars, w);
+			if (r.isUnderflow())
+			{
+				break;
+			}
+		}
+		if (last)
+		{
+			break;
+		}
+		pos += bb.position();
+	}
+	while (decoder.flush(cb).isOverflow())
+	{
+		drain(cb, chars, w);
+	}
+	drain(cb, chars, w);
+}
+/*
+ * Write the characters decoded so far, and empty the buffer.
+ */
+protected void drain(CharBuffer cb, char[] chars, Writer w)
+	throws IOException 
+{
+	if (cb.position() > 0)
+	{
+		w.write(chars, 0, cb.position());
+		cb.clear();
+	}
+}
+/**
+ * Compress the output files with the given stage.
+ *
+ * @param compression the stage to compress output with, or
+ *                    null to write plain text
+ */
+public void setCompression(CompressionStage compression)
+{
+	this.compression = compression;
+}
+}
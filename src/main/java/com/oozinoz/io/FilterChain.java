@@ -0,0 +1,34 @@
+package com.oozinoz.io;
+
+import java.io.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Define a way to wrap a chain of filters around a writer. A
+ * FilePipeline object uses a chain to filter the text it
+ * reads, so the same filters work whether a program builds
+ * a chain of writers itself or lets a pipeline run it.
+ *
+ * @see FilePipeline
+ */
+public interface FilterChain {
+/**
+ * Return a writer that filters what it receives and passes
+ * the result to the given writer.
+ *
+ * @param out the writer at the end of the chain
+ * @return a writer that filters what it receives and passes
+ *         the result to the given writer
+ * @throws IOException if an I/O error occurs
+ */
+public abstract Writer wrap(Writer out) throws IOException;
+}
@@ -17,7 +17,7 @@ import java.io.*;
  * 
  * @author Steven J. Metsker
  */
-public class LowerCaseFilter extends OozinozFilter 
+public class LowerCaseFilter extends CaseFilter 
 {
 /**
  * Construct a filter that pass lower case characters
@@ -41,4 +41,19 @@ public void write(int c) throws IOException
 {
 	out.write(Character.toLowerCase((char) c));
 }
+/**
+ * Lower-case the characters in place.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param from the index of the first character to convert
+ * @param to the index after the last character to convert
+ * @param atStart true if <code>from</code> starts the block
+ */
+protected void convert(char[] cbuf, int from, int to, boolean atStart)
+{
+	for (int i = from; i < to; i++)
+	{
+		cbuf[i] = Character.toLowerCase(cbuf[i]);
+	}
+}
 }
\ No newline at end of file
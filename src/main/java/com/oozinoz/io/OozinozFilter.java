@@ -14,17 +14,63 @@ import java.io.*;
  */
 /**
  * This class channels all versions of the write() method to
- * go through the write() method that takes a single 
- * character.
+ * go through the writeBuffer() method, which receives blocks
+ * of characters in an array that the filter owns. A filter
+ * may change the characters in this array in place and then
+ * pass the block along with passDown(). When the next writer
+ * is also an OozinozFilter, passDown() hands it the same
+ * array, so a chain of filters handles each block without
+ * copying it or making a call per character.
+ * <p>
+ * By default, writeBuffer() sends each character through the
+ * write() method that takes a single character, so a filter
+ * that implements only that method still works.
  * 
  * @author Steven J. Metsker
  */
 public abstract class OozinozFilter extends FilterWriter 
 {
+	public static final int BUFFER_SIZE = 8192;
+	protected char[] buf;
+	protected int bufferSize = BUFFER_SIZE;
 protected OozinozFilter(Writer out)
 {
 	super(out);
 }
+/*
+ * Return this filter's block buffer, creating it on first
+ * use.
+ */
+protected char[] buffer()
+{
+	if (buf == null)
+	{
+		buf = new char[bufferSize];
+	}
+	return buf;
+}
+/**
+ * Pass a block of characters to the underlying stream. If
+ * the underlying stream is an OozinozFilter, it receives the
+ * block in place, and may change it.
+ *
+ * @param cbuf a buffer that this filter owns
+ * @param  off Offset from which to start reading characters
+ * @param  len Number of characters to be written
+ *
+ * @throws IOException if an I/O error occurs
+ */
+protected void passDown(char cbuf[], int off, int len)
+	throws IOException {
+	if (out instanceof OozinozFilter)
+	{
+		((OozinozFilter) out).writeBuffer(cbuf, off, len);
+	}
+	else
+	{
+		out.write(cbuf, off, len);
+	}
+}
 /**
  * Write a portion of an array of characters.
  *
@@ -35,6 +81,30 @@ protected OozinozFilter(Writer out)
  * @throws IOException if an I/O error occurs
  */
 public void write(char cbuf[], int off, int len)
+	throws IOException {
+	char[] b = buffer();
+	while (len > 0)
+	{
+		int n = Math.min(len, b.length);
+		System.arraycopy(cbuf, off, b, 0, n);
+		writeBuffer(b, 0, n);
+		off += n;
+		len -= n;
+	}
+}
+/**
+ * Write a block of characters from a buffer that this filter
+ * may change in place. Subclasses that can handle a block at
+ * once should override this method; this implementation
+ * writes the characters one at a time.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param  off Offset from which to start reading characters
+ * @param  len Number of characters to be written
+ *
+ * @throws IOException if an I/O error occurs
+ */
+protected void writeBuffer(char cbuf[], int off, int len)
 	throws IOException {
 	for (int i = 0; i < len; i++)
 	{
@@ -59,6 +129,14 @@ public abstract void write(int c) throws IOException;
 public void write(String s, int off, int len)
 throws IOException 
 {
-	write(s.toCharArray(), off, len);
+	char[] b = buffer();
+	while (len > 0)
+	{
+		int n = Math.min(len, b.length);
+		s.getChars(off, off + n, b, 0);
+		writeBuffer(b, 0, n);
+		off += n;
+		len -= n;
+	}
 }
 }
\ No newline at end of file
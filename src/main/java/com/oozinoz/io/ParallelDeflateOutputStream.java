@@ -0,0 +1,314 @@
+package com.oozinoz.io;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A ParallelDeflateOutputStream object compresses blocks of
+ * its input on a fork/join pool, and writes the compressed
+ * blocks in order as a single gzip or zlib stream.
+ * <p>
+ * Each block is compressed on its own and ends with a sync
+ * flush, so the compressed blocks join into one valid deflate
+ * stream. This costs a little compression, since no block
+ * can refer back to text in the block before it. The stream
+ * computes the checksum in the writing thread, and keeps a
+ * limited number of blocks in flight, reusing their buffers.
+ * Each worker that compresses a block takes an idle deflater,
+ * if there is one, and gives it back when it is done, so the
+ * stream creates about as many deflaters as the pool has
+ * workers, and ends them when it finishes.
+ */
+public class ParallelDeflateOutputStream extends FilterOutputStream 
+{
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 17;
+	protected ForkJoinPool pool;
+	protected int level;
+	protected int blockSize;
+	protected boolean gzip;
+	protected Checksum checksum;
+	protected long total = 0;
+	protected byte[] block;
+	protected int blockLen = 0;
+	protected LinkedList pending = new LinkedList();
+	protected LinkedList free = new LinkedList();
+	protected LinkedList freeOut = new LinkedList();
+	protected ConcurrentLinkedQueue deflaters = new ConcurrentLinkedQueue();
+	protected int maxPending;
+	protected boolean finished = false;
+
+/*
+ * A task that compresses one block into an output buffer,
+ * growing the buffer if the block does not fit.
+ */
+@SuppressWarnings("serial")
+protected class DeflateTask extends RecursiveAction
+{
+	final byte[] data;
+	final int len;
+	final boolean last;
+	byte[] out;
+	int outLen = 0;
+	DeflateTask(byte[] data, int len, boolean last, byte[] out)
+	{
+		this.data = data;
+		this.len = len;
+		this.last = last;
+		this.out = out;
+	}
+	protected void compute()
+	{
+		Deflater d = (Deflater) deflaters.poll();
+		if (d == null)
+		{
+			d = new Deflater(level, true);
+		}
+		try
+		{
+			d.setInput(data, 0, len);
+			if (last)
+			{
+				d.finish();
+			}
+			while (true)
+			{
+				outLen +=
+					d.deflate(
+						out, outLen, out.length - outLen,
+						last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+				if (last ? d.finished() : outLen < out.length)
+				{
+					break;
+				}
+				out = Arrays.copyOf(out, 2 * out.length);
+			}
+		}
+		finally
+		{
+			d.reset();
+			deflaters.add(d);
+		}
+	}
+}
+
+/**
+ * Construct a stream that compresses blocks of its input on
+ * the given pool.
+ *
+ * @param out the stream to write compressed bytes to
+ * @param pool the pool to compress on
+ * @param level the compression level
+ * @param blockSize the number of bytes to compress in each
+ *                  task
+ * @param gzip If true, write gzip format; otherwise write
+ *             zlib format.
+ * @throws IOException if an I/O error occurs
+ */
+public ParallelDeflateOutputStream(
+	OutputStream out,
+	ForkJoinPool pool,
+	int level,
+	int blockSize,
+	boolean gzip)
+	throws IOException 
+{
+	super(out);
+	this.pool = pool;
+	this.level = level;
+	this.blockSize = blockSize;
+	this.gzip = gzip;
+	checksum = gzip ? (Checksum) new CRC32() : new Adler32();
+	maxPending = 2 * pool.getParallelism() + 1;
+	block = new byte[blockSize];
+	// what zlib reports: 0 fastest, 1 fast, 2 default, 3 best
+	int speed =
+		level == Deflater.DEFAULT_COMPRESSION ? 2
+			: level < 2 ? 0 : level < 6 ? 1 : level == 6 ? 2 : 3;
+	if (gzip)
+	{
+		int xfl = speed == 0 ? 4 : level == Deflater.BEST_COMPRESSION ? 2 : 0;
+		out.write(
+			new byte[] {
+				(byte) 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, (byte) xfl, (byte) 0xff });
+	}
+	else
+	{
+		// deflate, a 32K window, and a check making the pair a multiple of 31
+		int flg = speed << 6;
+		flg += (31 - (0x78 * 256 + flg) % 31) % 31;
+		out.write(new byte[] {(byte) 0x78, (byte) flg });
+	}
+}
+/**
+ * Write a single byte.
+ *
+ * @param b the byte to write
+ * @throws IOException if an I/O error occurs
+ */
+public void write(int b) throws IOException 
+{
+	block[blockLen++] = (byte) b;
+	if (blockLen == blockSize)
+	{
+		submit(false);
+	}
+}
+/**
+ * Write a portion of an array of bytes.
+ *
+ * @param b the bytes to write
+ * @param off the offset of the first byte to write
+ * @param len the number of bytes to write
+ * @throws IOException if an I/O error occurs
+ */
+public void write(byte[] b, int off, int len) throws IOException 
+{
+	while (len > 0)
+	{
+		int n = Math.min(len, blockSize - blockLen);
+		System.arraycopy(b, off, block, blockLen, n);
+		blockLen += n;
+		off += n;
+		len -= n;
+		if (blockLen == blockSize)
+		{
+			submit(false);
+		}
+	}
+}
+/**
+ * Compress any bytes being held, write out every compressed
+ * block, and flush the underlying stream.
+ *
+ * @throws IOException if an I/O error occurs
+ */
+public void flush() throws IOException 
+{
+	if (blockLen > 0)
+	{
+		submit(false);
+	}
+	while (!pending.isEmpty())
+	{
+		writeOldest();
+	}
+	out.flush();
+}
+/**
+ * Finish the compressed stream without closing the underlying
+ * stream.
+ *
+ * @throws IOException if an I/O error occurs
+ */
+public void finish() throws IOException 
+{
+	if (finished)
+	{
+		return;
+	}
+	submit(true);
+	while (!pending.isEmpty())
+	{
+		writeOldest();
+	}
+	long check = checksum.getValue();
+	if (gzip)
+	{
+		writeInt((int) check, true);
+		writeInt((int) total, true);
+	}
+	else
+	{
+		writeInt((int) check, false);
+	}
+	finished = true;
+	for (Deflater d; (d = (Deflater) deflaters.poll()) != null; )
+	{
+		d.end();
+	}
+}
+/**
+ * Finish the compressed stream and close the underlying
+ * stream.
+ *
+ * @throws IOException if an I/O error occurs
+ */
+public void close() throws IOException 
+{
+	try
+	{
+		finish();
+	}
+	finally
+	{
+		out.close();
+	}
+}
+/*
+ * Hand the current block to the pool, and start a new block,
+ * waiting for the oldest block if too many are in flight.
+ */
+protected void submit(boolean last) throws IOException 
+{
+	checksum.update(block, 0, blockLen);
+	total += blockLen;
+	byte[] result =
+		freeOut.isEmpty()
+			? new byte[blockSize + blockSize / 8 + 64]
+			: (byte[]) freeOut.removeFirst();
+	pending.add(pool.submit(new DeflateTask(block, blockLen, last, result)));
+	block = free.isEmpty() ? new byte[blockSize] : (byte[]) free.removeFirst();
+	blockLen = 0;
+	while (pending.size() >= maxPending)
+	{
+		writeOldest();
+	}
+}
+/*
+ * Wait for the oldest block to be compressed, write it, and
+ * keep its buffers for reuse.
+ */
+protected void writeOldest() throws IOException 
+{
+	DeflateTask task = (DeflateTask) pending.removeFirst();
+	try
+	{
+		task.get();
+	}
+	catch (InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+		throw new InterruptedIOException();
+	}
+	catch (ExecutionException e)
+	{
+		throw new IOException(e.getCause());
+	}
+	out.write(task.out, 0, task.outLen);
+	free.add(task.data);
+	freeOut.add(task.out);
+}
+/*
+ * Write an int in little-endian or big-endian order.
+ */
+protected void writeInt(int i, boolean littleEndian) throws IOException 
+{
+	for (int k = 0; k < 4; k++)
+	{
+		int shift = littleEndian ? 8 * k : 8 * (3 - k);
+		out.write(i >>> shift);
+	}
+}
+}
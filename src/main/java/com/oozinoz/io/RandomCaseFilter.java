@@ -44,4 +44,25 @@ public void write(int c) throws IOException
 			? Character.toLowerCase((char) c)
 			: Character.toUpperCase((char) c));
 }
+/**
+ * Randomly case a block of characters in place and pass it
+ * to the underlying stream.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param  off Offset from which to start reading characters
+ * @param  len Number of characters to be written
+ *
+ * @throws IOException if an I/O error occurs
+ */
+protected void writeBuffer(char cbuf[], int off, int len)
+	throws IOException {
+	for (int i = off; i < off + len; i++)
+	{
+		cbuf[i] =
+			Math.random() > .5
+				? Character.toLowerCase(cbuf[i])
+				: Character.toUpperCase(cbuf[i]);
+	}
+	passDown(cbuf, off, len);
+}
 }
\ No newline at end of file
@@ -18,7 +18,7 @@ import java.io.*;
  * 
  * @author Steven J. Metsker
  */
-public class TitleCaseFilter extends OozinozFilter 
+public class TitleCaseFilter extends CaseFilter 
 {
 	boolean inWhite = true;
 /**
@@ -45,6 +45,54 @@ public void write(int c) throws IOException
 		inWhite
 			? Character.toUpperCase((char) c)
 			: Character.toLowerCase((char) c));
-	inWhite = Character.isWhitespace((char) c) || c == '"';
+	inWhite = isBreak((char) c);
+}
+/*
+ * Return true if the character after this one should be upper
+ * case.
+ */
+protected static boolean isBreak(char c)
+{
+	return Character.isWhitespace(c) || c == '"';
+}
+/**
+ * Title-case a block of characters in place and pass it to
+ * the underlying stream, remembering whether the block ends
+ * in whitespace.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param  off Offset from which to start reading characters
+ * @param  len Number of characters to be written
+ *
+ * @throws IOException if an I/O error occurs
+ */
+protected void writeBuffer(char cbuf[], int off, int len)
+	throws IOException {
+	boolean white = len > 0 ? isBreak(cbuf[off + len - 1]) : inWhite;
+	super.writeBuffer(cbuf, off, len);
+	inWhite = white;
+}
+/**
+ * Title-case the characters in place. A chunk that does
+ * not start the block takes its state from the character
+ * before it.
+ *
+ * @param cbuf a buffer that this filter may change
+ * @param from the index of the first character to convert
+ * @param to the index after the last character to convert
+ * @param atStart true if <code>from</code> starts the block
+ */
+protected void convert(char[] cbuf, int from, int to, boolean atStart)
+{
+	boolean white = atStart ? inWhite : isBreak(cbuf[from - 1]);
+	for (int i = from; i < to; i++)
+	{
+		char c = cbuf[i];
+		cbuf[i] =
+			white
+				? Character.toUpperCase(c)
+				: Character.toLowerCase(c);
+		white = isBreak(c);
+	}
 }
 }
\ No newline at end of file
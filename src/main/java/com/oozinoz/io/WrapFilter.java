@@ -30,15 +30,26 @@ import java.util.*;
  * arrange for this is to read input with a 
  * BufferedReader object that handles platform 
  * differences in how line breaks are indicated.
+ * <p>
+ * A WrapFilter object keeps the current line and word in
+ * char arrays that it reuses from line to line, and writes
+ * each line to the underlying stream straight from its line
+ * array. The filter can optionally justify text, padding
+ * the gaps between words so that every line but the last
+ * fills the line width.
  * 
  * @author Steven J. Metsker 
  */
 public class WrapFilter extends OozinozFilter 
 {
 	protected int lineLength;
-	protected StringBuffer lineBuf = new StringBuffer();
-	protected StringBuffer wordBuf = new StringBuffer();
+	protected char[] line;
+	protected int lineLen = 0;
+	protected char[] word;
+	protected int wordLen = 0;
+	protected char[] blanks;
 	protected boolean center = false;
+	protected boolean justify = false;
 	protected boolean inWhite = false;
 	protected boolean needBlank = false;
 /**
@@ -53,6 +64,8 @@ public WrapFilter(BufferedWriter out, int lineLength)
 {
 	super(out);
 	this.lineLength = lineLength;
+	line = new char[Math.max(16, lineLength + 1)];
+	word = new char[Math.max(16, lineLength + 1)];
 }
 /**
  * Flush and close the stream.
@@ -72,56 +85,128 @@ public void close() throws IOException
  */
 public void flush() throws IOException 
 {
-	if (wordBuf.length() > 0)
+	if (wordLen > 0)
 	{
 		postWord();
 	}
-	if (lineBuf.length() > 0)
+	if (lineLen > 0)
 	{
-		postLine();
+		postLine(false);
 	}
 	out.flush();
 }
 /*
- * Write out the characters in the line buffer, 
- * optionally centering this output.
+ * Write out the characters in the line buffer, optionally
+ * centering them, or justifying them if the line is full.
  */
-protected void postLine() throws IOException 
+protected void postLine(boolean full) throws IOException 
 {
+	if (full && justify)
+	{
+		postJustified();
+		return;
+	}
 	if (center)
 	{
-		char[] skootch =
-			new char[(lineLength - lineBuf.length()) / 2];
-		Arrays.fill(skootch, ' ');
-		out.write(skootch);
+		postBlanks((lineLength - lineLen) / 2);
+	}
+	out.write(line, 0, lineLen);
+}
+/*
+ * Write out the line buffer, widening the gaps between words
+ * so that the line fills the line length. Leftover blanks go
+ * to the leftmost gaps.
+ */
+protected void postJustified() throws IOException 
+{
+	int start = 0;
+	while (start < lineLen && line[start] == ' ')
+	{
+		start++;
+	}
+	int end = lineLen;
+	while (end > start && line[end - 1] == ' ')
+	{
+		end--;
+	}
+	int gaps = 0;
+	for (int i = start; i < end; i++)
+	{
+		if (line[i] == ' ')
+		{
+			gaps++;
+		}
+	}
+	int extra = lineLength - end;
+	if (gaps == 0 || extra <= 0)
+	{
+		out.write(line, 0, end);
+		return;
+	}
+	int each = extra / gaps;
+	int more = extra % gaps;
+	int from = 0;
+	int gap = 0;
+	for (int i = start; i < end; i++)
+	{
+		if (line[i] == ' ')
+		{
+			out.write(line, from, i + 1 - from);
+			postBlanks(gap++ < more ? each + 1 : each);
+			from = i + 1;
+		}
+	}
+	out.write(line, from, end - from);
+}
+/*
+ * Write the given number of blanks.
+ */
+protected void postBlanks(int n) throws IOException 
+{
+	if (n > 0 && blanks == null)
+	{
+		blanks = new char[Math.max(16, lineLength)];
+		Arrays.fill(blanks, ' ');
+	}
+	while (n > 0)
+	{
+		int k = Math.min(n, blanks.length);
+		out.write(blanks, 0, k);
+		n -= k;
 	}
-	out.write(lineBuf.toString());
 }
 /*
  * Add the word buffer to the line buffer, unless this
  * would make the line buffer too long. In that case, 
  * post the line buffer and then reset the line buffer 
- * to the word buffer. 
+ * to the word buffer, swapping the two arrays.
  */
 protected void postWord() throws IOException 
 {
-	if (lineBuf.length() + 1 + wordBuf.length() > lineLength)
+	if (lineLen + 1 + wordLen > lineLength)
 	{
-		postLine();
+		postLine(true);
 		((BufferedWriter) out).newLine();
-		lineBuf = wordBuf;
-		wordBuf = new StringBuffer();
+		char[] swap = line;
+		line = word;
+		lineLen = wordLen;
+		word = swap;
 	}
 	else
 	{
+		if (lineLen + 1 + wordLen > line.length)
+		{
+			line = Arrays.copyOf(line, (lineLen + 1 + wordLen) * 2);
+		}
 		if (needBlank)
 		{
-			lineBuf.append(" ");
+			line[lineLen++] = ' ';
 		}
-		lineBuf.append(wordBuf);
+		System.arraycopy(word, 0, line, lineLen, wordLen);
+		lineLen += wordLen;
 		needBlank = true;
-		wordBuf = new StringBuffer();
 	}
+	wordLen = 0;
 }
 /**
  * Decide whether or not to center the output.
@@ -133,6 +218,19 @@ public void setCenter(boolean center)
 {
 	this.center = center;
 }
+/**
+ * Decide whether or not to justify the output. Justified
+ * text fills every line but the last by widening the gaps
+ * between words. Justifying a line takes the place of
+ * centering it.
+ *
+ * @param justify If true, output text will 
+ *                be justified.
+ */
+public void setJustify(boolean justify)
+{
+	this.justify = justify;
+}
 /**
  * Add the given character to the current word buffer, 
  * unless the character is whitespace. Whitespace marks 
@@ -144,7 +242,32 @@ public void setCenter(boolean center)
  */
 public void write(int c) throws IOException 
 {
-	if (Character.isWhitespace((char) c))
+	add((char) c);
+}
+/**
+ * Add a block of characters to the current word and line
+ * buffers, posting words and lines as they fill.
+ *
+ * @param cbuf a buffer of characters to write
+ * @param  off Offset from which to start reading characters
+ * @param  len Number of characters to be written
+ *
+ * @throws IOException if an I/O error occurs
+ */
+protected void writeBuffer(char cbuf[], int off, int len)
+	throws IOException {
+	for (int i = off; i < off + len; i++)
+	{
+		add(cbuf[i]);
+	}
+}
+/*
+ * Add a character to the word buffer, or, if it is the first
+ * whitespace after a word, post the word.
+ */
+protected void add(char c) throws IOException 
+{
+	if (Character.isWhitespace(c))
 	{
 		if (!inWhite)
 		{
@@ -154,7 +277,11 @@ public void write(int c) throws IOException
 	}
 	else
 	{
-		wordBuf.append((char) c);
+		if (wordLen == word.length)
+		{
+			word = Arrays.copyOf(word, wordLen * 2);
+		}
+		word[wordLen++] = c;
 		inWhite = false;
 	}
 }
@@ -1,6 +1,7 @@
 package com.oozinoz.machine;
 
-import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /*
  * Copyright (c) 2001 Steven J. Metsker.
@@ -17,67 +18,136 @@ import java.util.*;
  * Represent a stack of bins, limited in height by the reach
  * of a track robot.
  * <p>
+ * The stack itself is a linked list of nodes whose top the
+ * stack swaps in with compare-and-set, so pushing and popping
+ * never take a lock. A pair of semaphores, one counting free
+ * slots and one counting bins, bounds the stack and lets
+ * callers wait for room or for a bin. The push and pop methods
+ * wait as long as necessary, the offer and poll methods wait up
+ * to a timeout, and the tryPush and tryPop methods do not wait
+ * at all.
+ * <p>
  * The "Introducing Extensions" chapter of "The Design Patterns 
  * Java Workbook" uses this class.
  * 
  * @author Steven J. Metsker
+ * @see PacedBinStack
  */
 public class BinStack 
 {
 	public static final int STACK_LIMIT = 3;
-	private Stack stack = new Stack();
-/**
- * Remove and return the top of the stack. This method
- * will wait if the stack is empty.
- *
- * @return top of the stack
+	protected final int limit;
+	protected final AtomicReference top = new AtomicReference();
+	protected final Semaphore slots;
+	protected final Semaphore bins = new Semaphore(0);
+
+/*
+ * A node of the stack. Each node records the height of the
+ * stack from it down, so that size() is a single read.
  */
-synchronized public Bin pop()
+protected static class Node
 {
-	while (stack.size() == 0)
+	final Bin bin;
+	final Node next;
+	final int height;
+	Node(Bin bin, Node next)
 	{
-		try
-		{
-			wait();
-			// don't snatch away a bin before the user sees it
-			Thread.sleep(500);
-		}
-		catch (InterruptedException ignore)
-		{
-		}
+		this.bin = bin;
+		this.next = next;
+		this.height = next == null ? 1 : next.height + 1;
 	}
-	if (stack.size() == STACK_LIMIT)
+}
+
+/**
+ * Create a stack that holds up to STACK_LIMIT bins.
+ */
+public BinStack()
+{
+	this(STACK_LIMIT);
+}
+/**
+ * Create a stack that holds up to the given number of bins.
+ *
+ * @param limit the most bins the stack can hold
+ */
+public BinStack(int limit)
+{
+	if (limit < 1)
 	{
-		notify();
+		throw new IllegalArgumentException(
+			"Stack limit must be positive: " + limit);
 	}
-	return (Bin) stack.pop();
+	this.limit = limit;
+	slots = new Semaphore(limit);
 }
 /**
- * Add the provided bin to the top of the stack. This method
- * will wait if the stack is full.
+ * Return the most bins this stack can hold.
+ *
+ * @return the most bins this stack can hold
+ */
+public int getLimit()
+{
+	return limit;
+}
+/**
+ * Add the provided bin to the top of the stack, waiting up to
+ * the given time for room.
  *
  * @param Bin the bin to stack
+ * @param timeout how long to wait
+ * @param unit the unit of the timeout
+ * @return true if the bin went onto the stack
+ * @throws InterruptedException if interrupted while waiting
  */
-synchronized public void push(Bin b)
+public boolean offer(Bin b, long timeout, TimeUnit unit)
+	throws InterruptedException
 {
-	while (stack.size() == STACK_LIMIT)
+	if (!slots.tryAcquire(timeout, unit))
 	{
-		try
-		{
-			wait();
-			// don't snatch replace a bin before the user sees
-			// a space for it
-			Thread.sleep(500);
-		}
-		catch (InterruptedException ignore)
-		{
-		}
+		return false;
 	}
-	if (stack.size() == 0)
+	link(b);
+	return true;
+}
+/**
+ * Remove and return the top of the stack, waiting up to the
+ * given time for a bin.
+ *
+ * @param timeout how long to wait
+ * @param unit the unit of the timeout
+ * @return top of the stack, or null if no bin arrived in time
+ * @throws InterruptedException if interrupted while waiting
+ */
+public Bin poll(long timeout, TimeUnit unit)
+	throws InterruptedException
+{
+	if (!bins.tryAcquire(timeout, unit))
 	{
-		notify();
+		return null;
 	}
-	stack.push(b);
+	return unlink();
+}
+/**
+ * Remove and return the top of the stack. This method
+ * will wait if the stack is empty.
+ *
+ * @return top of the stack
+ */
+public Bin pop()
+{
+	bins.acquireUninterruptibly();
+	return unlink();
+}
+/**
+ * Add the provided bin to the top of the stack. This method
+ * will wait if the stack is full.
+ *
+ * @param Bin the bin to stack
+ */
+public void push(Bin b)
+{
+	slots.acquireUninterruptibly();
+	link(b);
 }
 /**
  * Return the size of the stack.
@@ -86,6 +156,71 @@ synchronized public void push(Bin b)
  */
 public int size()
 {
-	return stack.size();
+	Node n = (Node) top.get();
+	return n == null ? 0 : n.height;
+}
+/**
+ * Remove and return the top of the stack if there is one,
+ * without waiting.
+ *
+ * @return top of the stack, or null if the stack is empty
+ */
+public Bin tryPop()
+{
+	if (!bins.tryAcquire())
+	{
+		return null;
+	}
+	return unlink();
+}
+/**
+ * Add the provided bin to the top of the stack if there is
+ * room, without waiting.
+ *
+ * @param Bin the bin to stack
+ * @return true if the bin went onto the stack
+ */
+public boolean tryPush(Bin b)
+{
+	if (!slots.tryAcquire())
+	{
+		return false;
+	}
+	link(b);
+	return true;
+}
+
+/*
+ * Push a bin, having already claimed a slot for it.
+ */
+protected void link(Bin b)
+{
+	while (true)
+	{
+		Node n = (Node) top.get();
+		if (top.compareAndSet(n, new Node(b, n)))
+		{
+			bins.release();
+			return;
+		}
+	}
+}
+
+/*
+ * Pop a bin, having already claimed one. A bin's permit is
+ * released only after its node is on the stack, so the stack
+ * cannot be empty here.
+ */
+protected Bin unlink()
+{
+	while (true)
+	{
+		Node n = (Node) top.get();
+		if (top.compareAndSet(n, n.next))
+		{
+			slots.release();
+			return n.bin;
+		}
+	}
+}
 }
-}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.oozinoz.machine;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.oozinoz.chemical.Tub;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+ 
+/**
+ * This mediator lets several threads move tubs at once. Its
+ * maps and sets are concurrent, so reading them needs no lock
+ * and iterating over a machine's tubs never fails because
+ * another thread moves a tub. Moves of the same tub happen
+ * one at a time; moves of different tubs can overlap.
+ */
+public class ConcurrentMediator extends Mediator 
+{
+/**
+ * Set a tub's location to be the given machine.
+ *
+ * @param Tub the tub
+ * @param Machine the machine, or null to remove the tub
+ *                from every machine
+ */
+public void set(Tub t, Machine m)
+{
+	synchronized (t)
+	{
+		super.set(t, m);
+	}
+}
+
+/*
+ * Create the set and its view at most once, even if several
+ * threads ask for the same machine's tubs.
+ */
+protected Set tubs(Machine m)
+{
+	Set tubs = (Set) machineToTubs.get(m);
+	if (tubs == null)
+	{
+		synchronized (machineToTubs)
+		{
+			tubs = (Set) machineToTubs.get(m);
+			if (tubs == null)
+			{
+				tubs = createSet();
+				machineToTubView.put(
+					m,
+					Collections.unmodifiableSet(tubs));
+				machineToTubs.put(m, tubs);
+			}
+		}
+	}
+	return tubs;
+}
+
+/*
+ * Use concurrent maps.
+ */
+protected Map createMap()
+{
+	return new ConcurrentHashMap();
+}
+
+/*
+ * Use concurrent sets.
+ */
+protected Set createSet()
+{
+	return ConcurrentHashMap.newKeySet();
+}
+}
@@ -41,20 +41,51 @@ public abstract int getMachineCount();
  * @return true if this component is atop an acyclic graph
  *              in which no node has two parents (two 
  *              references to it).
+ * @see #getTreeBreaker()
  */
 public boolean isTree()
 {
-	return isTree(new HashSet());
+	return getTreeBreaker() == null;
 }
 
 /**
- * Return an iterator for this component.
+ * Return a node that keeps this component from being a tree,
+ * namely a node that a walk from this component reaches a
+ * second time. Return null if this component is a tree.
+ *
+ * @return a node that keeps this component from being a
+ *         tree, or null if this component is a tree
+ */
+public MachineComponent getTreeBreaker()
+{
+	return null;
+}
+
+/**
+ * Return an iterator for this component. The iterator tracks
+ * the machines it visits by id, so that it returns each
+ * machine once even if the component is not a tree.
  *
  * @return an iterator for this component
  */
 public ComponentIterator iterator()
 {
-	return iterator(new HashSet());
+	return iterator(new MachineIdSet());
+}
+
+/**
+ * Return an iterator for this component, which the caller
+ * knows to be a tree. The iterator does not track the nodes
+ * it visits, so it is faster than iterator(), but it will
+ * return a shared node more than once and will not finish
+ * walking a cycle.
+ *
+ * @return an iterator for this component, which must be
+ *         a tree
+ */
+public ComponentIterator treeIterator()
+{
+	return iterator(null);
 }
 /**
  * Return a textual representation of this component.
@@ -73,6 +104,7 @@ public String toString()
 
 	protected MachineComponent parent;
 	protected Engineer responsible;
+	protected List containers;
 
 /**
  * Create a machine component with the given id and parent
@@ -89,6 +121,46 @@ protected MachineComponent(
 	this.parent = parent;
 }
 
+/*
+ * Record that the given composite holds this component. A
+ * component that several composites share, or that one
+ * composite holds twice, has several entries.
+ */
+protected void addContainer(MachineComposite c)
+{
+	if (containers == null)
+	{
+		containers = new ArrayList(1);
+	}
+	containers.add(c);
+}
+
+/*
+ * Return true if this component is the given one or lies
+ * beneath it. This walks up from this component through the
+ * composites that hold it.
+ */
+protected boolean isWithin(MachineComponent mc)
+{
+	Map visited = new IdentityHashMap();
+	List stack = new ArrayList();
+	stack.add(this);
+	while (!stack.isEmpty())
+	{
+		MachineComponent c =
+			(MachineComponent) stack.remove(stack.size() - 1);
+		if (c == mc)
+		{
+			return true;
+		}
+		if (c.containers != null && visited.put(c, c) == null)
+		{
+			stack.addAll(c.containers);
+		}
+	}
+	return false;
+}
+
 /**
  * Return true if, according to business rules, this
  * component and the supplied object refer to the same
@@ -108,6 +180,17 @@ public boolean equals(Object o)
 	return id == mc.id;
 }
 
+/**
+ * Return a hash code that agrees with equals(), which
+ * compares ids.
+ *
+ * @return this component's id
+ */
+public int hashCode()
+{
+	return id;
+}
+
 /**
  * Return the engineer who is responsible for this machine.
  *
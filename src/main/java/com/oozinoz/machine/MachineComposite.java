@@ -22,8 +22,26 @@ import com.oozinoz.util.*;
  *
  */
 public class MachineComposite extends MachineComponent 
+implements Composite 
 {
 	protected List components = new ArrayList();
+	protected List componentView =
+		Collections.unmodifiableList(components);
+	protected int machineCount = 0;
+	// an index of everything beneath a root, once it needs one
+	protected IntMap index;
+	// what we know about whether this composite is a tree
+	protected int treeState = TREE_UNKNOWN;
+	protected MachineComponent treeBreaker;
+	protected static final int TREE_UNKNOWN = 0;
+	protected static final int TREE = 1;
+	protected static final int NOT_TREE = 2;
+	// the state of the walk that last updated machine counts
+	protected Object countWalk;
+	protected int countOrder;
+	protected int countDelta;
+	// the roots above this composite, when it last looked
+	protected List roots;
 
 
 /**
@@ -32,26 +50,426 @@ public class MachineComposite extends MachineComponent
  * @param component the component to add
  */
 public void add(MachineComponent component)
+{
+	List roots = roots();
+	adopt(component);
+	addMachineCount(component.getMachineCount());
+	index(roots, component);
+	forgetTree();
+}
+/*
+ * Record the given component as a child without updating
+ * machine counts or indexes.
+ */
+protected void adopt(MachineComponent component)
 {
 	components.add(component);
+	component.addContainer(this);
+}
+/*
+ * Return the roots at or above this composite, namely the
+ * composites above it that no other composite holds. Only
+ * roots keep indexes. A composite within a cycle that no root
+ * lies above has no roots.
+ * <p>
+ * A composite remembers the roots it found, and reuses them
+ * until one of them joins another composite, or until this
+ * composite or one above it gains a second container, which
+ * clears what the composites beneath it remember. Callers must
+ * not change the list this returns.
+ */
+protected List roots()
+{
+	if (containers == null)
+	{
+		return Collections.singletonList(this);
+	}
+	if (rootsAreCurrent())
+	{
+		return roots;
+	}
+	List result = new ArrayList();
+	Map visited = new IdentityHashMap();
+	List stack = new ArrayList();
+	stack.add(this);
+	while (!stack.isEmpty())
+	{
+		MachineComposite c =
+			(MachineComposite) stack.remove(stack.size() - 1);
+		if (visited.put(c, c) != null)
+		{
+			continue;
+		}
+		if (c.containers == null)
+		{
+			result.add(c);
+		}
+		else if (c != this && c.rootsAreCurrent())
+		{
+			stack.addAll(c.roots);
+		}
+		else
+		{
+			stack.addAll(c.containers);
+		}
+	}
+	roots = result;
+	return result;
+}
+/*
+ * Return true if the roots this composite last found are still
+ * its roots. A composite with no roots looks again each time.
+ */
+protected boolean rootsAreCurrent()
+{
+	if (roots == null || roots.isEmpty())
+	{
+		return false;
+	}
+	for (int i = 0; i < roots.size(); i++)
+	{
+		if (((MachineComposite) roots.get(i)).containers != null)
+		{
+			return false;
+		}
+	}
+	return true;
+}
+/*
+ * Add the given new child, and everything beneath it, to the
+ * indexes of the given roots, which were this composite's
+ * roots before the child joined it. A composite child is no
+ * longer a root, so it hands its index to one of the roots, if
+ * it has one, and that root indexes the rest of what lies
+ * beneath it if it had no index yet. A child that already had
+ * a container now has new
+ * roots above it and above everything beneath it.
+ */
+protected void index(List roots, MachineComponent child)
+{
+	MachineComposite giver = null;
+	if (child instanceof MachineComposite)
+	{
+		MachineComposite mc = (MachineComposite) child;
+		if (mc.containers.size() > 1)
+		{
+			mc.forgetRoots();
+		}
+		else if (mc.index != null)
+		{
+			giver = mc;
+		}
+	}
+	for (int i = roots.size() - 1; i >= 0; i--)
+	{
+		MachineComposite root = (MachineComposite) roots.get(i);
+		if (root == child || (root.index == null && giver == null))
+		{
+			continue;
+		}
+		if (giver != null)
+		{
+			if (root.index == null)
+			{
+				root.index = new IntMap();
+				root.indexAll(root, child);
+			}
+			root.takeIndex(giver);
+			giver = null;
+		}
+		else
+		{
+			root.indexAll(child);
+		}
+	}
+	if (child instanceof MachineComposite)
+	{
+		((MachineComposite) child).index = null;
+	}
+}
+/*
+ * Clear the roots that this composite, and every composite
+ * beneath it, remember.
+ */
+protected void forgetRoots()
+{
+	List all = beneath(this);
+	for (int i = 0; i < all.size(); i++)
+	{
+		Object o = all.get(i);
+		if (o instanceof MachineComposite)
+		{
+			((MachineComposite) o).roots = null;
+		}
+	}
+}
+/*
+ * Add everything in the index of the given composite, which is
+ * giving its index up, to this composite's index. This keeps
+ * the larger of the two maps and copies the smaller one into
+ * it, so building a plant from the bottom up does not copy the
+ * whole of each new child's index into its parent.
+ */
+protected void takeIndex(MachineComposite mc)
+{
+	if (mc.index.size() > index.size())
+	{
+		IntMap mine = index;
+		index = mc.index;
+		index.putAll(mine);
+	}
+	else
+	{
+		index.putAllAbsent(mc.index);
+	}
+	mc.index = null;
+}
+/*
+ * Add the given component, and everything beneath it, to this
+ * composite's index.
+ */
+protected void indexAll(MachineComponent mc)
+{
+	if (mc instanceof Machine)
+	{
+		index.putIfAbsent(mc.getId(), mc);
+		return;
+	}
+	indexAll(mc, null);
+}
+/*
+ * Add the given component, and everything beneath it except
+ * what lies only beneath the given component to skip, to this
+ * composite's index.
+ */
+protected void indexAll(MachineComponent mc, MachineComponent skip)
+{
+	List all = beneath(mc, skip);
+	for (int i = 0; i < all.size(); i++)
+	{
+		MachineComponent c = (MachineComponent) all.get(i);
+		index.putIfAbsent(c.getId(), c);
+	}
+}
+/*
+ * Return the given component and everything beneath it, each
+ * once, in the order that a depth-first walk first reaches
+ * them. The walk keeps its own stack, so it works on
+ * composites of any depth.
+ */
+protected static List beneath(MachineComponent mc)
+{
+	return beneath(mc, null);
+}
+/*
+ * Return what beneath(mc) returns, but without walking into
+ * the given component to skip, if it is not null.
+ */
+protected static List beneath(MachineComponent mc, MachineComponent skip)
+{
+	List all = new ArrayList();
+	all.add(mc);
+	if (!(mc instanceof MachineComposite))
+	{
+		return all;
+	}
+	Map visited = new IdentityHashMap();
+	visited.put(mc, mc);
+	if (skip != null)
+	{
+		visited.put(skip, skip);
+	}
+	MachineComposite[] stack = new MachineComposite[8];
+	int[] next = new int[8];
+	int top = 0;
+	stack[0] = (MachineComposite) mc;
+	while (top >= 0)
+	{
+		MachineComposite c = stack[top];
+		if (next[top] >= c.components.size())
+		{
+			top--;
+			continue;
+		}
+		MachineComponent child =
+			(MachineComponent) c.components.get(next[top]++);
+		if (visited.put(child, child) != null)
+		{
+			continue;
+		}
+		all.add(child);
+		if (child instanceof MachineComposite)
+		{
+			if (++top == stack.length)
+			{
+				stack = Arrays.copyOf(stack, top * 2);
+				next = Arrays.copyOf(next, top * 2);
+			}
+			stack[top] = (MachineComposite) child;
+			next[top] = 0;
+		}
+	}
+	return all;
+}
+/**
+ * Return the component with the given id, from among this
+ * composite and the components beneath it. A composite that
+ * no other composite holds indexes its components by id the
+ * first time this method is called, and keeps the index up to
+ * date as components are added, so this method usually does
+ * not walk the tree.
+ * <p>
+ * If several components beneath this one have the given id,
+ * this method returns one of them.
+ *
+ * @param id the id of the component to find
+ * @return the component with the given id, or null if no
+ *         component beneath this one has that id
+ */
+public MachineComponent lookup(int id)
+{
+	List roots = roots();
+	for (int i = 0; i < roots.size(); i++)
+	{
+		MachineComposite root = (MachineComposite) roots.get(i);
+		if (root.index == null)
+		{
+			root.index = new IntMap();
+			root.indexAll(root);
+		}
+		MachineComponent mc = (MachineComponent) root.index.get(id);
+		if (mc == null)
+		{
+			// a root's index holds every id beneath the root
+			return null;
+		}
+		if (root == this || mc == this || mc.isWithin(this))
+		{
+			return mc;
+		}
+	}
+	List all = beneath(this);
+	for (int i = 0; i < all.size(); i++)
+	{
+		MachineComponent mc = (MachineComponent) all.get(i);
+		if (mc.getId() == id)
+		{
+			return mc;
+		}
+	}
+	return null;
+}
+/*
+ * Add delta to the machine count of this composite and of every
+ * composite that contains it. A composite that holds this one
+ * twice, or that reaches it along two paths, counts its
+ * machines twice, just as walking the children would.
+ * <p>
+ * This walks up from this composite with its own stack. It
+ * marks each composite with an object that stands for this
+ * walk, so that it reaches each one once, and it numbers the
+ * composites as it leaves them. A composite
+ * leaves the walk after the composites that contain it, except
+ * along a link that closes a cycle. So a second pass, in the
+ * reverse of that order, can hand each composite's share of
+ * delta up to its containers, once per link, skipping only the
+ * links that close cycles. A run of composites that each have
+ * one container, which is how most plants look, needs no
+ * second pass, so this climbs it directly.
+ */
+protected void addMachineCount(int delta)
+{
+	if (delta == 0)
+	{
+		return;
+	}
+	Object walk = new Object();
+	MachineComposite start = this;
+	while (start.containers != null && start.containers.size() == 1)
+	{
+		start.countWalk = walk;
+		start.countOrder = Integer.MAX_VALUE;
+		start.machineCount += delta;
+		start = (MachineComposite) start.containers.get(0);
+		if (start.countWalk == walk)
+		{
+			return;
+		}
+	}
+	if (start.containers == null)
+	{
+		start.machineCount += delta;
+		return;
+	}
+	List order = new ArrayList();
+	MachineComposite[] stack = new MachineComposite[8];
+	int[] next = new int[8];
+	int top = 0;
+	stack[0] = start;
+	start.mark(walk);
+	while (top >= 0)
+	{
+		MachineComposite c = stack[top];
+		if (c.containers == null || next[top] >= c.containers.size())
+		{
+			c.countOrder = order.size();
+			order.add(c);
+			top--;
+			continue;
+		}
+		MachineComposite p =
+			(MachineComposite) c.containers.get(next[top]++);
+		if (p.countWalk == walk)
+		{
+			continue;
+		}
+		p.mark(walk);
+		if (++top == stack.length)
+		{
+			stack = Arrays.copyOf(stack, top * 2);
+			next = Arrays.copyOf(next, top * 2);
+		}
+		stack[top] = p;
+		next[top] = 0;
+	}
+	start.countDelta = delta;
+	for (int i = order.size() - 1; i >= 0; i--)
+	{
+		MachineComposite c = (MachineComposite) order.get(i);
+		c.machineCount += c.countDelta;
+		for (int j = 0;
+			c.containers != null && j < c.containers.size();
+			j++)
+		{
+			MachineComposite p = (MachineComposite) c.containers.get(j);
+			if (p.countOrder < c.countOrder)
+			{
+				p.countDelta += c.countDelta;
+			}
+		}
+	}
+}
+/*
+ * Mark this composite as reached by the given walk, with no
+ * share of the walk's delta yet.
+ */
+protected void mark(Object walk)
+{
+	countWalk = walk;
+	countDelta = 0;
 }
 /**
  * Return the number of machines (leaf nodes) in the tree
- * that this composite represents
+ * that this composite represents. Composites keep this count
+ * up to date as components are added, so this method does
+ * not walk the tree.
  *
  * @return the number of machines (leaf nodes) in the
  *         tree that this composite represents
  */
 public int getMachineCount()
 {
-	int count = 0;
-	Iterator i = components.iterator();
-	while (i.hasNext())
-	{
-		MachineComponent mc = (MachineComponent) i.next();
-		count += mc.getMachineCount();
-	}
-	return count;
+	return machineCount;
 }
 
 
@@ -82,11 +500,8 @@ public MachineComposite(
 	MachineComponent parent,
 	MachineComponent[] components)
 {
-	super(id, parent);
-	for (int i = 0; i < components.length; i++)
-	{
-		add(components[i]);
-	}
+	this(id, parent);
+	add(components);
 }
 
 /**
@@ -96,10 +511,19 @@ public MachineComposite(
  */
 public void add(MachineComponent[] children)
 {
+	List roots = roots();
+	int delta = 0;
+	for (int i = 0; i < children.length; i++)
+	{
+		adopt(children[i]);
+		delta += children[i].getMachineCount();
+	}
+	addMachineCount(delta);
 	for (int i = 0; i < children.length; i++)
 	{
-		components.add(children[i]);
+		index(roots, children[i]);
 	}
+	forgetTree();
 }
 
 /**
@@ -128,13 +552,133 @@ public void accept(MachineVisitor v)
 }
 
 /**
- * Return this composite's children.
+ * Return this composite's children. Use add() to add children,
+ * so that machine counts stay current.
  *
- * @return this composite's children
+ * @return an unmodifiable view of this composite's children
  */
 public List getComponents()
 {
-	return components;
+	return componentView;
+}
+
+/**
+ * Return this composite's children, so that iterators can
+ * walk into this composite.
+ *
+ * @return an unmodifiable view of this composite's children
+ */
+public List getChildren()
+{
+	return componentView;
+}
+
+/*
+ * Forget that this composite and the composites above it are
+ * trees, since a new child may have changed that. Adding
+ * children never makes a non-tree a tree, and a composite
+ * above one whose state is unknown has no state to forget, so
+ * the walk stops at composites that are not known to be trees.
+ */
+protected void forgetTree()
+{
+	if (treeState != TREE)
+	{
+		return;
+	}
+	Map visited = new IdentityHashMap();
+	List stack = new ArrayList();
+	stack.add(this);
+	while (!stack.isEmpty())
+	{
+		MachineComposite c =
+			(MachineComposite) stack.remove(stack.size() - 1);
+		if (c.treeState != TREE || visited.put(c, c) != null)
+		{
+			continue;
+		}
+		c.treeState = TREE_UNKNOWN;
+		if (c.containers != null)
+		{
+			stack.addAll(c.containers);
+		}
+	}
+}
+
+/**
+ * Return a node that keeps this composite from being a tree,
+ * namely the first node that a depth-first walk from this
+ * composite reaches a second time. Components with the same id
+ * are the same component here, as they are to equals() and to
+ * this composite's iterators. Return null if this composite is
+ * a tree.
+ * <p>
+ * The walk keeps its own stack, so it works on composites of
+ * any depth. This composite remembers the answer until a
+ * component is added to it or beneath it.
+ *
+ * @return a node that keeps this composite from being a tree,
+ *         or null if this composite is a tree
+ */
+public MachineComponent getTreeBreaker()
+{
+	if (treeState == TREE_UNKNOWN)
+	{
+		checkTree();
+	}
+	return treeBreaker;
+}
+
+/*
+ * Walk this composite, in the order that isTree(Set) would,
+ * looking for a node reached twice. If there is none, every
+ * composite beneath this one is a tree too, so record that.
+ */
+protected void checkTree()
+{
+	Set visited = new MachineIdSet();
+	List composites = new ArrayList();
+	MachineComposite[] stack = new MachineComposite[8];
+	int[] next = new int[8];
+	int top = 0;
+	stack[0] = this;
+	visited.add(this);
+	composites.add(this);
+	while (top >= 0)
+	{
+		MachineComposite c = stack[top];
+		if (next[top] >= c.components.size())
+		{
+			top--;
+			continue;
+		}
+		MachineComponent child =
+			(MachineComponent) c.components.get(next[top]++);
+		if (!visited.add(child))
+		{
+			treeState = NOT_TREE;
+			treeBreaker = child;
+			return;
+		}
+		if (child instanceof MachineComposite)
+		{
+			MachineComposite mc = (MachineComposite) child;
+			composites.add(mc);
+			if (++top == stack.length)
+			{
+				stack = Arrays.copyOf(stack, top * 2);
+				next = Arrays.copyOf(next, top * 2);
+			}
+			stack[top] = mc;
+			next[top] = 0;
+		}
+	}
+	for (int i = 0; i < composites.size(); i++)
+	{
+		MachineComposite mc = (MachineComposite) composites.get(i);
+		mc.treeState = TREE;
+		mc.treeBreaker = null;
+	}
 }
 
 /**
@@ -162,6 +706,8 @@ protected boolean isTree(Set visited)
 /**
  * Return an iterator for this composite.
  *
+ * @param visited a set of visited nodes, or null if this
+ *                composite is a tree
  * @return an iterator for this composite
  */
 public ComponentIterator iterator(Set visited)
@@ -0,0 +1,120 @@
+package com.oozinoz.machine;
+
+import java.util.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A set of machine components that records membership in a
+ * bit set indexed by id, so that checking and adding a
+ * component neither hashes it nor compares it with others.
+ * Components with the same id are the same component, as
+ * MachineComponent.equals() has it.
+ * <p>
+ * Objects that are not machine components, and components
+ * whose ids are negative or very large, go in an ordinary
+ * hash set instead.
+ */
+public class MachineIdSet extends AbstractSet 
+{
+	/**
+	 * Ids at or above this go in the hash set, so that one odd
+	 * id cannot make the bit set huge.
+	 */
+	public static final int MAX_BIT_ID = 1 << 24;
+	protected BitSet ids = new BitSet();
+	protected List members = new ArrayList();
+	protected Set others;
+
+/**
+ * Add the given object to this set.
+ *
+ * @param o the object to add
+ * @return true if the set did not already hold the object
+ */
+public boolean add(Object o)
+{
+	int id = bitId(o);
+	if (id < 0)
+	{
+		if (others == null)
+		{
+			others = new HashSet();
+		}
+		if (!others.add(o))
+		{
+			return false;
+		}
+	}
+	else
+	{
+		if (ids.get(id))
+		{
+			return false;
+		}
+		ids.set(id);
+	}
+	members.add(o);
+	return true;
+}
+
+/**
+ * Return true if this set holds the given object.
+ *
+ * @param o the object to look for
+ * @return true if this set holds the given object
+ */
+public boolean contains(Object o)
+{
+	int id = bitId(o);
+	if (id < 0)
+	{
+		return others != null && others.contains(o);
+	}
+	return ids.get(id);
+}
+
+/**
+ * Return an iterator over the members of this set, in the
+ * order they were added. The iterator does not support
+ * removal.
+ *
+ * @return an iterator over the members of this set
+ */
+public Iterator iterator()
+{
+	return Collections.unmodifiableList(members).iterator();
+}
+
+/**
+ * Return the number of members of this set.
+ *
+ * @return the number of members of this set
+ */
+public int size()
+{
+	return members.size();
+}
+
+/*
+ * Return the bit to use for the given object, or -1 if the
+ * object belongs in the hash set.
+ */
+protected int bitId(Object o)
+{
+	if (!(o instanceof MachineComponent))
+	{
+		return -1;
+	}
+	int id = ((MachineComponent) o).getId();
+	return id >= 0 && id < MAX_BIT_ID ? id : -1;
+}
+}
@@ -16,18 +16,19 @@ import com.oozinoz.chemical.Tub;
  */
  
 /**
- * This class manages the relation of tubs to machines.
+ * This class manages the relation of tubs to machines. It
+ * keeps a map from each tub to its machine and a map from each
+ * machine to the set of tubs at it, and updates both together,
+ * so that looking up either side of the relation is quick.
  *
  * @author Steven J. Metsker
  *
  */
 public class Mediator 
 {
-
-
-
-
-	protected Map tubToMachine = new HashMap();
+	protected Map tubToMachine = createMap();
+	protected Map machineToTubs = createMap();
+	protected Map machineToTubView = createMap();
 
 /**
  * Return the machine where a tub is placed.
@@ -41,34 +42,76 @@ public Machine getMachine(Tub t)
 }
 
 /**
- * Return a set of the tubs at a machine.
+ * Return a set of the tubs at a machine. Once a tub has been
+ * placed at the machine, the set is an unmodifiable view that
+ * reflects later moves of tubs to and from the machine. Before
+ * that, the set is empty and does not change.
  *
  * @param Machine the machine
  * @return a set of the tubs at a machine
  */
 public Set getTubs(Machine m)
 {
-	Set set = new HashSet();
-	Iterator i = tubToMachine.entrySet().iterator();
-	while (i.hasNext())
-	{
-		Map.Entry e = (Map.Entry) i.next();
-		if (e.getValue().equals(m))
-		{
-			set.add(e.getKey());
-		}
-	}
-	return set;
+	Set view = (Set) machineToTubView.get(m);
+	return view != null ? view : Collections.EMPTY_SET;
 }
 
 /**
  * Set a tub's location to be the given machine.
  *
  * @param Tub the tub
- * @param Machine the machine
+ * @param Machine the machine, or null to remove the tub
+ *                from every machine
  */
 public void set(Tub t, Machine m)
 {
-	tubToMachine.put(t, m);
+	Machine old =
+		(Machine) (m == null
+			? tubToMachine.remove(t)
+			: tubToMachine.put(t, m));
+	if (old == m)
+	{
+		return;
+	}
+	if (old != null)
+	{
+		tubs(old).remove(t);
+	}
+	if (m != null)
+	{
+		tubs(m).add(t);
+	}
+}
+
+/*
+ * Return the modifiable set of tubs at the given machine,
+ * creating it and its view if necessary.
+ */
+protected Set tubs(Machine m)
+{
+	Set tubs = (Set) machineToTubs.get(m);
+	if (tubs == null)
+	{
+		tubs = createSet();
+		machineToTubs.put(m, tubs);
+		machineToTubView.put(m, Collections.unmodifiableSet(tubs));
+	}
+	return tubs;
+}
+
+/*
+ * Subclasses can override this to supply other kinds of map.
+ */
+protected Map createMap()
+{
+	return new HashMap();
+}
+
+/*
+ * Subclasses can override this to supply other kinds of set.
+ */
+protected Set createSet()
+{
+	return new HashSet();
+}
 }
-}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.oozinoz.machine;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * Slow down a bin stack so that a person watching it can see
+ * what happens. When a pop has to wait for a bin, the new bin
+ * stays in view for a moment before the pop returns it. When a
+ * push has to wait for room, the empty space stays in view for
+ * a moment before the new bin appears.
+ * <p>
+ * The stack does this only in what size() reports, so the
+ * stack that this object decorates is never held up. Any bin
+ * stack can be paced this way; every operation goes to the
+ * decorated stack, and the stack this object inherits stays
+ * empty.
+ *
+ * @see com.oozinoz.applications.ShowWaitAndNotify
+ */
+public class PacedBinStack extends BinStack 
+{
+	public static final long DEFAULT_DELAY = 500;
+	protected BinStack stack;
+	protected long delay;
+	protected AtomicInteger adjustment = new AtomicInteger();
+
+/**
+ * Pace the given stack with the default delay of half a
+ * second.
+ *
+ * @param BinStack the stack to slow down
+ */
+public PacedBinStack(BinStack stack)
+{
+	this(stack, DEFAULT_DELAY);
+}
+/**
+ * Pace the given stack with the given delay.
+ *
+ * @param BinStack the stack to slow down
+ * @param delay how many milliseconds a change stays in view
+ */
+public PacedBinStack(BinStack stack, long delay)
+{
+	super(stack.getLimit());
+	this.stack = stack;
+	this.delay = delay;
+}
+/**
+ * Return the most bins the underlying stack can hold.
+ *
+ * @return the most bins the underlying stack can hold
+ */
+public int getLimit()
+{
+	return stack.getLimit();
+}
+/**
+ * Add the provided bin to the top of the underlying stack,
+ * waiting up to the given time for room.
+ */
+public boolean offer(Bin b, long timeout, TimeUnit unit)
+	throws InterruptedException
+{
+	return stack.offer(b, timeout, unit);
+}
+/**
+ * Remove and return the top of the underlying stack, waiting
+ * up to the given time for a bin.
+ */
+public Bin poll(long timeout, TimeUnit unit)
+	throws InterruptedException
+{
+	return stack.poll(timeout, unit);
+}
+/**
+ * Remove and return the top of the stack, waiting if the
+ * stack is empty. If the pop had to wait, keep showing the
+ * bin for a moment before returning it.
+ *
+ * @return top of the stack
+ */
+public Bin pop()
+{
+	Bin b = stack.tryPop();
+	if (b != null)
+	{
+		return b;
+	}
+	b = stack.pop();
+	hold(1);
+	return b;
+}
+/**
+ * Add the provided bin to the top of the stack, waiting if
+ * the stack is full. If the push had to wait, keep showing the
+ * empty space for a moment before showing the bin.
+ *
+ * @param Bin the bin to stack
+ */
+public void push(Bin b)
+{
+	if (stack.tryPush(b))
+	{
+		return;
+	}
+	stack.push(b);
+	hold(-1);
+}
+/**
+ * Return the size of the stack as a person watching it
+ * should see it.
+ *
+ * @return the size of the stack as a person watching it
+ *         should see it
+ */
+public int size()
+{
+	int n = stack.size() + adjustment.get();
+	return Math.max(0, Math.min(n, getLimit()));
+}
+/**
+ * Pop a bin from the underlying stack without waiting.
+ */
+public Bin tryPop()
+{
+	return stack.tryPop();
+}
+/**
+ * Push a bin onto the underlying stack without waiting.
+ */
+public boolean tryPush(Bin b)
+{
+	return stack.tryPush(b);
+}
+
+/*
+ * Misreport the size by the given amount for the length of
+ * the delay.
+ */
+protected void hold(int amount)
+{
+	adjustment.addAndGet(amount);
+	try
+	{
+		Thread.sleep(delay);
+	}
+	catch (InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+	}
+	finally
+	{
+		adjustment.addAndGet(-amount);
+	}
+}
+}
@@ -0,0 +1,278 @@
+package com.oozinoz.machine;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * This class walks a machine composite on a fork/join pool,
+ * splitting the work at the boundaries between a composite's
+ * components. Subclasses supply the behavior, much as a
+ * MachineVisitor does, by saying how to start a partial result,
+ * how to fold a machine or composite into one, and how to
+ * combine two partial results.
+ * <p>
+ * Each task builds its own partial result, so tasks share no
+ * results and take no locks. A composite with few machines
+ * beneath it is walked within one task.
+ * <p>
+ * A component that several composites hold is visited once per
+ * walk, no matter how many paths lead to it; the first task to
+ * reach it claims it. This also keeps the walk from going
+ * around a cycle.
+ *
+ * @see MachineVisitor
+ */
+public abstract class ParallelMachineVisitor 
+{
+	/**
+	 * Composites with at most this many machines beneath them
+	 * are walked within a single task.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024;
+	protected ForkJoinPool pool;
+	protected int threshold;
+
+/*
+ * The state of one walk: the shared components that tasks have
+ * claimed, and whether a task has asked the walk to stop.
+ */
+protected static class Walk
+{
+	final MachineComponent root;
+	final Set claimed = ConcurrentHashMap.newKeySet();
+	volatile boolean stopped = false;
+	Walk(MachineComponent root)
+	{
+		this.root = root;
+	}
+}
+
+/*
+ * A task that walks one component and everything beneath it.
+ * Tasks run only within one walk, so none is ever serialized.
+ */
+@SuppressWarnings("serial")
+protected class WalkTask extends RecursiveTask
+{
+	final Walk walk;
+	final MachineComponent mc;
+	WalkTask(Walk walk, MachineComponent mc)
+	{
+		this.walk = walk;
+		this.mc = mc;
+	}
+	protected Object compute()
+	{
+		Object result = newResult();
+		if (!claim(walk, mc))
+		{
+			return result;
+		}
+		if (mc instanceof Machine)
+		{
+			visitMachine((Machine) mc, result);
+			checkDone(walk, result);
+			return result;
+		}
+		MachineComposite c = (MachineComposite) mc;
+		if (c.getMachineCount() <= threshold)
+		{
+			walkComposite(walk, c, result);
+			return result;
+		}
+		visitComposite(c, result);
+		checkDone(walk, result);
+		List children = c.getComponents();
+		List tasks = new ArrayList(children.size());
+		for (int i = 0; i < children.size(); i++)
+		{
+			tasks.add(
+				new WalkTask(
+					walk,
+					(MachineComponent) children.get(i)));
+		}
+		invokeAll(tasks);
+		for (int i = 0; i < tasks.size(); i++)
+		{
+			result =
+				combine(result, ((WalkTask) tasks.get(i)).join());
+		}
+		return result;
+	}
+}
+
+/**
+ * Create a visitor that runs on the common fork/join pool.
+ */
+public ParallelMachineVisitor()
+{
+	this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+}
+
+/**
+ * Create a visitor that runs on the given pool, and that walks
+ * composites with at most the given number of machines within
+ * a single task.
+ *
+ * @param pool the pool to run on
+ * @param threshold the most machines to walk within one task
+ */
+public ParallelMachineVisitor(ForkJoinPool pool, int threshold)
+{
+	this.pool = pool;
+	this.threshold = threshold;
+}
+
+/**
+ * Walk the given component and everything beneath it, and
+ * return the combined result.
+ *
+ * @param mc the component to walk
+ * @return the combined result of visiting every node
+ */
+public Object walk(MachineComponent mc)
+{
+	return pool.invoke(new WalkTask(new Walk(mc), mc));
+}
+
+/**
+ * Return true if the given partial result means the walk can
+ * stop. Once any task reports that it is done, tasks stop
+ * visiting nodes.
+ *
+ * @param result a partial result
+ * @return true if the walk can stop
+ */
+protected boolean isDone(Object result)
+{
+	return false;
+}
+
+/**
+ * Return a new, empty partial result.
+ *
+ * @return a new, empty partial result
+ */
+protected abstract Object newResult();
+
+/**
+ * Combine two partial results, the first from nodes that come
+ * before the second's in the composite. This may return one
+ * of its arguments, updated.
+ *
+ * @param left a partial result
+ * @param right a later partial result
+ * @return the combined result
+ */
+protected abstract Object combine(Object left, Object right);
+
+/**
+ * Fold the given composite, but not its children, into the
+ * given partial result. By default, this does nothing.
+ *
+ * @param mc the composite to visit
+ * @param result the partial result to update
+ */
+protected void visitComposite(MachineComposite mc, Object result)
+{
+}
+
+/**
+ * Fold the given machine into the given partial result.
+ *
+ * @param m the machine to visit
+ * @param result the partial result to update
+ */
+protected abstract void visitMachine(Machine m, Object result);
+
+/*
+ * Return true if this walk should visit the given component.
+ * Components that only one composite holds are reached along
+ * only one path, so the walk claims only shared components and
+ * the root.
+ */
+protected boolean claim(Walk walk, MachineComponent mc)
+{
+	if (walk.stopped)
+	{
+		return false;
+	}
+	if (mc == walk.root
+		|| (mc.containers != null && mc.containers.size() > 1))
+	{
+		return walk.claimed.add(mc);
+	}
+	return true;
+}
+
+/*
+ * Stop the walk if the given result is enough.
+ */
+protected void checkDone(Walk walk, Object result)
+{
+	if (isDone(result))
+	{
+		walk.stopped = true;
+	}
+}
+
+/*
+ * Walk a small composite within the current task, adding to
+ * the given result. The walk keeps its own stack, as
+ * CompositeIterator does, so deep composites cannot overflow
+ * the thread's stack.
+ */
+protected void walkComposite(
+	Walk walk,
+	MachineComposite c,
+	Object result)
+{
+	MachineComposite[] stack = new MachineComposite[8];
+	int[] next = new int[8];
+	int top = 0;
+	stack[0] = c;
+	visitComposite(c, result);
+	checkDone(walk, result);
+	while (top >= 0)
+	{
+		MachineComposite mc = stack[top];
+		if (next[top] >= mc.components.size())
+		{
+			top--;
+			continue;
+		}
+		MachineComponent child =
+			(MachineComponent) mc.components.get(next[top]++);
+		if (!claim(walk, child))
+		{
+			continue;
+		}
+		if (child instanceof Machine)
+		{
+			visitMachine((Machine) child, result);
+			checkDone(walk, result);
+			continue;
+		}
+		MachineComposite cc = (MachineComposite) child;
+		visitComposite(cc, result);
+		checkDone(walk, result);
+		if (++top == stack.length)
+		{
+			stack = Arrays.copyOf(stack, top * 2);
+			next = Arrays.copyOf(next, top * 2);
+		}
+		stack[top] = cc;
+		next[top] = 0;
+	}
+}
+}
\ No newline at end of file
@@ -14,57 +14,138 @@ import java.util.*;
  */
  
 /**
- * A queue adds a little value to a list, supporting the
- * notions (and vocabulary) of enqueueing and dequeueing.
+ * A queue supports the notions (and vocabulary) of enqueueing
+ * and dequeueing. This queue keeps its elements in a circular
+ * array, so enqueueing and dequeueing take constant time and
+ * allocate nothing unless the array has to grow.
+ * <p>
+ * A queue can be bounded, in which case it never grows past
+ * its capacity and enqueueing onto a full queue fails.
  *
  * @author Steven J. Metsker
  *
  */
 public class Queue 
 {
-	protected List list;
+	public static final int DEFAULT_SIZE = 16;
+	protected Object[] elements;
+	protected int head = 0;
+	protected int size = 0;
+	protected int capacity;
 /**
- * Create a empty queue.
+ * Create a empty queue that grows as needed.
  */
 public Queue()
 {
-	this(new ArrayList());
+	elements = new Object[DEFAULT_SIZE];
+	capacity = Integer.MAX_VALUE;
 }
 /**
- * Create a queue that will operate on the supplied list.
+ * Create an empty queue that will hold at most the given
+ * number of elements.
  *
- * @param List the list to operate on
+ * @param capacity the most elements the queue will hold
+ */
+public Queue(int capacity)
+{
+	if (capacity < 1)
+	{
+		throw new IllegalArgumentException(
+			"Queue capacity must be positive: " + capacity);
+	}
+	elements = new Object[Math.min(capacity, DEFAULT_SIZE)];
+	this.capacity = capacity;
+}
+/**
+ * Create a queue that grows as needed and that starts out
+ * holding the elements of the supplied list, in order.
+ *
+ * @param List the elements to start with
  */
 public Queue(List list)
 {
-	this.list = list;
+	this();
+	Iterator i = list.iterator();
+	while (i.hasNext())
+	{
+		enqueue(i.next());
+	}
 }
 /**
- * Remove and return the head of the list.
+ * Remove and return the head of the queue.
  *
- * @return the head of the list
+ * @return the head of the queue
+ * @throws NoSuchElementException if the queue is empty
  */
 public Object dequeue()
 {
-	return list.remove(0);
+	if (size == 0)
+	{
+		throw new NoSuchElementException("Queue is empty");
+	}
+	Object o = elements[head];
+	elements[head] = null;
+	if (++head == elements.length)
+	{
+		head = 0;
+	}
+	size--;
+	return o;
 }
 /**
- * Add the supplied object to the end of the list
+ * Add the supplied object to the end of the queue
  *
- * @param Object the thing to add to the end of the list
+ * @param Object the thing to add to the end of the queue
+ * @throws IllegalStateException if the queue is bounded and
+ *         full
  */
 public void enqueue(Object o)
 {
-	list.add(o);
+	if (size == elements.length)
+	{
+		if (size == capacity)
+		{
+			throw new IllegalStateException(
+				"Queue is full at " + capacity);
+		}
+		grow();
+	}
+	int tail = head + size;
+	if (tail >= elements.length)
+	{
+		tail -= elements.length;
+	}
+	elements[tail] = o;
+	size++;
 }
 /**
- * Return true if the list is empty
+ * Return the most elements this queue will hold.
  *
- * @return true if the list is empty
+ * @return the most elements this queue will hold, which is
+ *         Integer.MAX_VALUE for a queue that grows as needed
+ */
+public int getCapacity()
+{
+	return capacity;
+}
+/**
+ * Return true if the queue is empty
+ *
+ * @return true if the queue is empty
  */
 public boolean isEmpty()
 {
-	return list.isEmpty();
+	return size == 0;
+}
+/**
+ * Return true if the queue is bounded and holds as many
+ * elements as it can.
+ *
+ * @return true if the queue can take no more elements
+ */
+public boolean isFull()
+{
+	return size == capacity;
 }
 
 /**
@@ -74,6 +155,21 @@ public boolean isEmpty()
  */
 public int size()
 {
-	return list.size();
+	return size;
+}
+
+/*
+ * Double the array, up to the capacity, and unwrap the
+ * elements so that the head is at index 0.
+ */
+protected void grow()
+{
+	int n = (int) Math.min((long) elements.length * 2, capacity);
+	Object[] a = new Object[n];
+	int firstPart = Math.min(size, elements.length - head);
+	System.arraycopy(elements, head, a, 0, firstPart);
+	System.arraycopy(elements, 0, a, firstPart, size - firstPart);
+	elements = a;
+	head = 0;
+}
 }
-}
\ No newline at end of file
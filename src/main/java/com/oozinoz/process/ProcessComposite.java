@@ -23,6 +23,7 @@ import com.oozinoz.util.*;
  */
 public abstract class ProcessComposite
 extends ProcessComponent
+implements Composite
 {
 	protected List subprocesses;
 /**
@@ -95,6 +96,17 @@ public int getStepCount(Set visited)
 	return count;
 }
 
+/**
+ * Return this composite's children, so that iterators can
+ * walk into this composite.
+ *
+ * @return this composite's children
+ */
+public List getChildren()
+{
+	return subprocesses;
+}
+
 /**
  * Return this composite's children.
  *
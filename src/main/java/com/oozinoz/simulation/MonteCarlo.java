@@ -0,0 +1,287 @@
+package com.oozinoz.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A MonteCarlo object flies many copies of a solid rocket,
+ * each with a burn rate and a fuel density that vary randomly
+ * about the rocket's own, and gathers where the copies land
+ * and how high they go.
+ * <p>
+ * The driver gathers landing distances into a histogram as it
+ * goes, and keeps each copy's apogee so that it can report
+ * percentiles of apogee.
+ * <p>
+ * The driver deals trials out in blocks of <code>BLOCK_SIZE
+ * </code>, and gives each block its own random stream, split
+ * from a stream seeded by the caller. Each block writes only
+ * its own slice of the apogees, and each task sums its own
+ * histogram, so the tasks share nothing that changes. Because
+ * a block's stream does not depend on which thread flies it,
+ * a run gives the same results for a given seed whether it
+ * runs in parallel or not.
+ */
+public class MonteCarlo 
+{
+	public static final int BLOCK_SIZE = 256;
+	public static final int DEFAULT_THRESHOLD = 4096;
+	protected SolidRocket rocket;
+	protected double burnRateDeviation = 0;
+	protected double densityDeviation = 0;
+	protected double angle = Math.PI / 2;
+	protected double maxDistance = 1000;
+	protected int nBin = 100;
+	protected ForkJoinPool pool;
+	protected int threshold = DEFAULT_THRESHOLD;
+	// the results of the last run
+	protected long[] histogram = new long[0];
+	protected double[] apogees = new double[0];
+
+/*
+ * A task that flies the trials of a range of blocks, and
+ * returns a histogram of where they land.
+ */
+@SuppressWarnings("serial")
+protected class FlyTask extends RecursiveTask
+{
+	final SplittableRandom[] streams;
+	final int n;
+	final int fromBlock;
+	final int toBlock;
+	FlyTask(SplittableRandom[] streams, int n, int fromBlock, int toBlock)
+	{
+		this.streams = streams;
+		this.n = n;
+		this.fromBlock = fromBlock;
+		this.toBlock = toBlock;
+	}
+	protected Object compute()
+	{
+		if (toBlock - fromBlock == 1
+			|| (toBlock - fromBlock) * BLOCK_SIZE <= threshold)
+		{
+			return fly(streams, n, fromBlock, toBlock);
+		}
+		int mid = (fromBlock + toBlock) >>> 1;
+		FlyTask right = new FlyTask(streams, n, mid, toBlock);
+		right.fork();
+		long[] counts =
+			(long[]) new FlyTask(streams, n, fromBlock, mid).compute();
+		long[] more = (long[]) right.join();
+		for (int i = 0; i < counts.length; i++)
+		{
+			counts[i] += more[i];
+		}
+		return counts;
+	}
+}
+
+/**
+ * Construct a driver that flies copies of the given rocket.
+ *
+ * @param rocket the rocket to fly copies of
+ */
+public MonteCarlo(SolidRocket rocket)
+{
+	this.rocket = rocket;
+}
+/*
+ * Fly the trials of a range of blocks, on one thread.
+ */
+protected long[] fly(
+	SplittableRandom[] streams, int n, int fromBlock, int toBlock)
+{
+	long[] counts = new long[nBin + 1];
+	Trajectory t = rocket.trajectory();
+	t.setRecording(false);
+	t.setAngle(angle);
+	double thrust = t.getThrust();
+	double burnTime = t.getBurnTime();
+	double propellant = t.getPropellantMass();
+	double dryMass = t.getDryMass();
+	double perBin = nBin / maxDistance;
+	for (int b = fromBlock; b < toBlock; b++)
+	{
+		SplittableRandom r = streams[b];
+		int end = Math.min(n, (b + 1) * BLOCK_SIZE);
+		for (int i = b * BLOCK_SIZE; i < end; i++)
+		{
+			// two normal deviates, by the Box-Muller method
+			double radius = Math.sqrt(-2 * Math.log(1 - r.nextDouble()));
+			double theta = 2 * Math.PI * r.nextDouble();
+			double f =
+				Math.max(0, 1 + burnRateDeviation * radius * Math.cos(theta))
+					* Math.max(0, 1 + densityDeviation * radius * Math.sin(theta));
+			// thrust and fuel mass both go as burn rate times density
+			t.setRocket(thrust * f, burnTime, propellant * f, dryMass);
+			t.fly();
+			apogees[i] = t.getApogee();
+			int bin = (int) (Math.abs(t.getDistance()) * perBin);
+			counts[Math.min(bin, nBin)]++;
+		}
+	}
+	return counts;
+}
+/**
+ * Return the percentile of apogee, in meters, from the last
+ * run: the height that the given percent of the copies did
+ * not exceed.
+ *
+ * @param percent a percent from 0 to 100
+ * @return the percentile of apogee
+ */
+public double getApogeePercentile(double percent)
+{
+	if (apogees.length == 0)
+	{
+		throw new IllegalStateException("No trials have run");
+	}
+	int i = (int) Math.ceil(percent / 100 * apogees.length) - 1;
+	return apogees[Math.max(0, Math.min(apogees.length - 1, i))];
+}
+/**
+ * Return the apogees of the last run, from lowest to highest.
+ *
+ * @return the apogees of the last run, sorted
+ */
+public double[] getApogees()
+{
+	return apogees;
+}
+/**
+ * Return a histogram of how far along the ground the copies
+ * landed in the last run. Entry i counts the landings at least
+ * i and less than i + 1 bin widths away, and the last entry
+ * counts the landings at least the maximum distance away.
+ *
+ * @return a histogram of landing distances
+ */
+public long[] getHistogram()
+{
+	return histogram;
+}
+/**
+ * Fly the given number of copies of the rocket, replacing the
+ * results of any earlier run.
+ *
+ * @param n the number of copies to fly
+ * @param seed the seed for the random variations
+ */
+public void run(int n, long seed)
+{
+	int nBlock = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	SplittableRandom root = new SplittableRandom(seed);
+	SplittableRandom[] streams = new SplittableRandom[nBlock];
+	for (int b = 0; b < nBlock; b++)
+	{
+		streams[b] = root.split();
+	}
+	apogees = new double[n];
+	if (nBlock == 0)
+	{
+		histogram = new long[nBin + 1];
+	}
+	else if (pool != null && n > threshold)
+	{
+		histogram = (long[]) pool.invoke(new FlyTask(streams, n, 0, nBlock));
+	}
+	else
+	{
+		histogram = fly(streams, n, 0, nBlock);
+	}
+	Arrays.sort(apogees);
+}
+/**
+ * Set the angle, in radians above the horizon, at which every
+ * copy launches.
+ *
+ * @param angle the launch angle
+ */
+public void setAngle(double angle)
+{
+	this.angle = angle;
+}
+/**
+ * Set how much the burn rate varies, as a standard deviation
+ * relative to the rocket's burn rate.
+ *
+ * @param deviation the relative standard deviation of the
+ *                  burn rate
+ */
+public void setBurnRateDeviation(double deviation)
+{
+	this.burnRateDeviation = deviation;
+}
+/**
+ * Set how much the fuel density varies, as a standard
+ * deviation relative to the rocket's fuel density.
+ *
+ * @param deviation the relative standard deviation of the
+ *                  density
+ */
+public void setDensityDeviation(double deviation)
+{
+	this.densityDeviation = deviation;
+}
+/**
+ * Set the bins of the landing histogram.
+ *
+ * @param maxDistance the distance, in meters, beyond which
+ *                    landings go in the last entry
+ * @param nBin the number of bins below that distance
+ */
+public void setHistogram(double maxDistance, int nBin)
+{
+	if (!(maxDistance > 0) || nBin < 1)
+	{
+		throw new IllegalArgumentException(
+			"A histogram needs a distance and at least one bin");
+	}
+	this.maxDistance = maxDistance;
+	this.nBin = nBin;
+}
+/**
+ * Decide whether or not to fly large runs in parallel, on
+ * the common fork/join pool.
+ *
+ * @param parallel true if large runs should fly in parallel
+ */
+public void setParallel(boolean parallel)
+{
+	setParallel(
+		parallel ? ForkJoinPool.commonPool() : null,
+		DEFAULT_THRESHOLD);
+}
+/**
+ * Fly large runs in parallel, on the given pool.
+ *
+ * @param pool the pool to run on, or null to fly every copy
+ *             on the calling thread
+ * @param threshold the number of copies below which a task
+ *                  flies its copies itself
+ */
+public void setParallel(ForkJoinPool pool, int threshold)
+{
+	if (threshold < 1)
+	{
+		throw new IllegalArgumentException(
+			"Threshold must be at least 1");
+	}
+	this.pool = pool;
+	this.threshold = threshold;
+}
+}
@@ -50,18 +50,60 @@ public SolidRocket(
 	this.density = density;
 	// calculate and save thrust
 	thrust =
-		(Force) burnRate
+		(Force) new MeasureAccumulator(burnRate)
 			.times(burnArea)
 			.times(burnTime)
 			.times(specificImpulse)
-			.times(density);
+			.times(density)
+			.toMeasure();
 }
 /**
- * This method in fact returns null.
+ * Return the height this rocket reaches when it flies
+ * straight up, integrating its flight with a Trajectory.
+ *
+ * @return the height this rocket reaches
  */
 public Length apogee()
 {
-	return null;
+	Trajectory t = trajectory();
+	t.setRecording(false);
+	t.fly();
+	return new Length(t.getApogee());
+}
+/**
+ * Return the mass of fuel this rocket burns.
+ *
+ * @return the mass of fuel this rocket burns
+ */
+public Mass propellantMass()
+{
+	return (Mass) new MeasureAccumulator(burnRate)
+		.times(burnArea)
+		.times(burnTime)
+		.times(density)
+		.toMeasure();
+}
+/**
+ * Set this rocket's drag coefficient times its frontal area.
+ * Until this is set, the rocket flies without drag.
+ *
+ * @param dragArea the rocket's drag coefficient times its
+ *                 frontal area
+ */
+public void setDragArea(Area dragArea)
+{
+	this.dragArea = dragArea;
+}
+/**
+ * Set the mass that this rocket has left when its fuel is
+ * gone. Until this is set, the rocket's dry mass equals the
+ * mass of its fuel.
+ *
+ * @param dryMass the rocket's mass without fuel
+ */
+public void setDryMass(Mass dryMass)
+{
+	this.dryMass = dryMass;
 }
 /**
  * Return the simulated thrust for this rocket.
@@ -72,6 +114,28 @@ public Force thrust()
 {
 	return thrust;
 }
+/**
+ * Return a trajectory that flies this rocket straight up.
+ *
+ * @return a trajectory that flies this rocket straight up
+ */
+public Trajectory trajectory()
+{
+	double propellant = propellantMass().getMagnitude();
+	Trajectory t =
+		new Trajectory(
+			thrust.getMagnitude(),
+			burnTime.getMagnitude(),
+			propellant,
+			dryMass == null ? propellant : dryMass.getMagnitude());
+	if (dragArea != null)
+	{
+		t.setDragArea(dragArea.getMagnitude());
+	}
+	return t;
+}
 
 	protected Force thrust;
+	protected Mass dryMass;
+	protected Area dragArea;
 }
\ No newline at end of file
@@ -0,0 +1,462 @@
+package com.oozinoz.simulation;
+
+import java.util.Arrays;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A Trajectory object integrates the flight of a rocket that
+ * thrusts along its direction of travel, loses mass at a
+ * steady rate while it burns, and feels drag and gravity.
+ * The integrator takes fixed fourth-order Runge-Kutta steps,
+ * shortening the step that reaches burnout so that no step
+ * straddles the jump in thrust. A launch rail holds the
+ * rocket to its launch angle for its first meter or so, and a
+ * rocket too heavy to lift off sits on the pad.
+ * <p>
+ * Magnitudes are in an MKS system and are plain doubles, so
+ * that a sweep over many rockets can reuse one trajectory
+ * object, calling <code>setRocket()</code> and <code>fly()
+ * </code> for each rocket, without creating any objects. A
+ * trajectory writes the points of a flight into arrays that
+ * it reuses from flight to flight.
+ * <p>
+ * A trajectory is not safe for use by several threads at
+ * once.
+ */
+public class Trajectory 
+{
+	public static final double GRAVITY = 9.80665;
+	public static final double AIR_DENSITY = 1.225;
+	public static final double DEFAULT_STEP = .01;
+	public static final double DEFAULT_RAIL_LENGTH = 1;
+	public static final double MAX_TIME = 3600;
+	protected double thrust;
+	protected double burnTime;
+	protected double propellantMass;
+	protected double dryMass;
+	protected double dragArea = 0;
+	protected double airDensity = AIR_DENSITY;
+	protected double angle = Math.PI / 2;
+	protected double cos = 0;
+	protected double sin = 1;
+	protected double railLength = DEFAULT_RAIL_LENGTH;
+	protected double step = DEFAULT_STEP;
+	protected boolean recording = true;
+	// the acceleration that accelerate() finds
+	protected double ax;
+	protected double ay;
+	// the results of the last flight
+	protected int nPoint;
+	protected double[] t = new double[256];
+	protected double[] x = new double[256];
+	protected double[] y = new double[256];
+	protected double apogee;
+	protected double distance;
+	protected double flightTime;
+
+/**
+ * Construct the trajectory of a rocket, launched straight up,
+ * that feels no drag until <code>setDragArea()</code> gives
+ * it some.
+ *
+ * @param thrust the rocket's thrust, in newtons
+ * @param burnTime how long the rocket burns, in seconds
+ * @param propellantMass the mass the rocket burns, in kg
+ * @param dryMass the mass left at burnout, in kg
+ */
+public Trajectory(
+	double thrust,
+	double burnTime,
+	double propellantMass,
+	double dryMass)
+{
+	setRocket(thrust, burnTime, propellantMass, dryMass);
+}
+/*
+ * Set ax and ay to the acceleration at the given time of a
+ * rocket at (px, py) with velocity (vx, vy). The caller says
+ * whether the rocket is burning, so that every stage of a step
+ * that ends at burnout still thrusts.
+ */
+protected void accelerate(
+	boolean burning,
+	double time,
+	double px,
+	double py,
+	double vx,
+	double vy)
+{
+	double mass;
+	double force;
+	if (burning)
+	{
+		mass = dryMass + propellantMass * Math.max(0, 1 - time / burnTime);
+		force = thrust;
+	}
+	else
+	{
+		mass = dryMass;
+		force = 0;
+	}
+	double v = Math.sqrt(vx * vx + vy * vy);
+	double drag = .5 * airDensity * dragArea * v * v;
+	if (px * cos + py * sin < railLength)
+	{
+		// the rail holds the rocket to the launch direction
+		double a = (force - drag) / mass - GRAVITY * sin;
+		if (v == 0 && a <= 0)
+		{
+			a = 0;
+		}
+		ax = a * cos;
+		ay = a * sin;
+		return;
+	}
+	if (v > 0)
+	{
+		// thrust along, and drag against, the velocity
+		double k = (force - drag) / (mass * v);
+		ax = k * vx;
+		ay = k * vy - GRAVITY;
+		return;
+	}
+	ax = force / mass * cos;
+	ay = force / mass * sin - GRAVITY;
+}
+/**
+ * Integrate a flight from launch until the rocket returns to
+ * the ground, or until <code>MAX_TIME</code> has passed.
+ *
+ * @return the number of points that the flight recorded
+ */
+public int fly()
+{
+	double time = 0;
+	double px = 0;
+	double py = 0;
+	double vx = 0;
+	double vy = 0;
+	nPoint = 0;
+	apogee = 0;
+	distance = 0;
+	flightTime = 0;
+	record(0, 0, 0);
+	while (time < MAX_TIME)
+	{
+		double h = step;
+		double nextTime = time + h;
+		if (time < burnTime && nextTime > burnTime)
+		{
+			h = burnTime - time;
+			nextTime = burnTime;
+		}
+		double h2 = h / 2;
+		boolean burning = time < burnTime;
+		accelerate(burning, time, px, py, vx, vy);
+		double k1x = ax;
+		double k1y = ay;
+		accelerate(
+			burning,
+			time + h2,
+			px + h2 * vx,
+			py + h2 * vy,
+			vx + h2 * k1x,
+			vy + h2 * k1y);
+		double k2x = ax;
+		double k2y = ay;
+		double vx2 = vx + h2 * k1x;
+		double vy2 = vy + h2 * k1y;
+		accelerate(
+			burning,
+			time + h2,
+			px + h2 * vx2,
+			py + h2 * vy2,
+			vx + h2 * k2x,
+			vy + h2 * k2y);
+		double k3x = ax;
+		double k3y = ay;
+		double vx3 = vx + h2 * k2x;
+		double vy3 = vy + h2 * k2y;
+		double vx4 = vx + h * k3x;
+		double vy4 = vy + h * k3y;
+		accelerate(burning, time + h, px + h * vx3, py + h * vy3, vx4, vy4);
+		double nextX = px + h / 6 * (vx + 2 * vx2 + 2 * vx3 + vx4);
+		double nextY = py + h / 6 * (vy + 2 * vy2 + 2 * vy3 + vy4);
+		double nextVx = vx + h / 6 * (k1x + 2 * k2x + 2 * k3x + ax);
+		double nextVy = vy + h / 6 * (k1y + 2 * k2y + 2 * k3y + ay);
+		if (vy > 0 && nextVy <= 0)
+		{
+			// the height peaks within the step; fit a parabola
+			double a = (nextVy - vy) / h;
+			apogee = Math.max(apogee, py - vy * vy / (2 * a));
+		}
+		apogee = Math.max(apogee, nextY);
+		if (nextY < 0 && time > 0)
+		{
+			double f = py / (py - nextY);
+			flightTime = time + f * h;
+			distance = px + f * (nextX - px);
+			record(flightTime, distance, 0);
+			return nPoint;
+		}
+		if (nextY <= 0 && nextVy <= 0)
+		{
+			// still on the pad
+			if (nextTime >= burnTime)
+			{
+				flightTime = nextTime;
+				record(flightTime, px, 0);
+				return nPoint;
+			}
+			nextX = px;
+			nextY = 0;
+			nextVx = 0;
+			nextVy = 0;
+		}
+		time = nextTime;
+		px = nextX;
+		py = nextY;
+		vx = nextVx;
+		vy = nextVy;
+		record(time, px, py);
+	}
+	flightTime = time;
+	distance = px;
+	return nPoint;
+}
+/**
+ * Return how long the rocket burns, in seconds.
+ *
+ * @return how long the rocket burns
+ */
+public double getBurnTime()
+{
+	return burnTime;
+}
+/**
+ * Return the mass left at burnout, in kg.
+ *
+ * @return the mass left at burnout
+ */
+public double getDryMass()
+{
+	return dryMass;
+}
+/**
+ * Return the mass the rocket burns, in kg.
+ *
+ * @return the mass the rocket burns
+ */
+public double getPropellantMass()
+{
+	return propellantMass;
+}
+/**
+ * Return the rocket's thrust, in newtons.
+ *
+ * @return the rocket's thrust
+ */
+public double getThrust()
+{
+	return thrust;
+}
+/**
+ * Return the greatest height of the last flight, in meters.
+ *
+ * @return the greatest height of the last flight
+ */
+public double getApogee()
+{
+	return apogee;
+}
+/**
+ * Return how far the last flight went along the ground, in
+ * meters.
+ *
+ * @return how far the last flight went along the ground
+ */
+public double getDistance()
+{
+	return distance;
+}
+/**
+ * Return how long the last flight lasted, in seconds.
+ *
+ * @return how long the last flight lasted
+ */
+public double getFlightTime()
+{
+	return flightTime;
+}
+/**
+ * Return the number of points that the last flight recorded.
+ *
+ * @return the number of points that the last flight recorded
+ */
+public int getPointCount()
+{
+	return nPoint;
+}
+/**
+ * Return the times of the points of the last flight. Only the
+ * first <code>getPointCount()</code> entries are meaningful.
+ *
+ * @return the times of the points of the last flight
+ */
+public double[] getT()
+{
+	return t;
+}
+/**
+ * Return the distances along the ground of the points of the
+ * last flight.
+ *
+ * @return the x values of the points of the last flight
+ */
+public double[] getX()
+{
+	return x;
+}
+/**
+ * Return the heights of the points of the last flight.
+ *
+ * @return the y values of the points of the last flight
+ */
+public double[] getY()
+{
+	return y;
+}
+/*
+ * Add a point to the flight, if this trajectory records
+ * points.
+ */
+protected void record(double time, double px, double py)
+{
+	if (!recording)
+	{
+		return;
+	}
+	if (nPoint == t.length)
+	{
+		t = Arrays.copyOf(t, nPoint * 2);
+		x = Arrays.copyOf(x, nPoint * 2);
+		y = Arrays.copyOf(y, nPoint * 2);
+	}
+	t[nPoint] = time;
+	x[nPoint] = px;
+	y[nPoint] = py;
+	nPoint++;
+}
+/**
+ * Set the density of the air, in kg per cubic meter.
+ *
+ * @param airDensity the density of the air
+ */
+public void setAirDensity(double airDensity)
+{
+	this.airDensity = airDensity;
+}
+/**
+ * Set the launch angle, in radians above the horizon.
+ *
+ * @param angle the launch angle
+ */
+public void setAngle(double angle)
+{
+	this.angle = angle;
+	cos = Math.cos(angle);
+	sin = Math.sin(angle);
+}
+/**
+ * Set the rocket's drag coefficient times its frontal area,
+ * in square meters.
+ *
+ * @param dragArea the rocket's drag coefficient times its
+ *                 frontal area
+ */
+public void setDragArea(double dragArea)
+{
+	this.dragArea = dragArea;
+}
+/**
+ * Set whether flights record their points. A sweep that needs
+ * only the apogee, distance and flight time of each flight
+ * can turn recording off.
+ *
+ * @param recording true if flights should record their points
+ */
+public void setRecording(boolean recording)
+{
+	this.recording = recording;
+}
+/**
+ * Set the length, in meters, of the rail that holds the
+ * rocket to its launch direction until it gains some speed.
+ *
+ * @param railLength the length of the launch rail
+ */
+public void setRailLength(double railLength)
+{
+	this.railLength = railLength;
+}
+/**
+ * Set the rocket that this trajectory flies.
+ *
+ * @param thrust the rocket's thrust, in newtons
+ * @param burnTime how long the rocket burns, in seconds
+ * @param propellantMass the mass the rocket burns, in kg
+ * @param dryMass the mass left at burnout, in kg
+ * @throws IllegalArgumentException if the burn time or the
+ *         propellant mass is negative, or the dry mass is not
+ *         positive
+ */
+public void setRocket(
+	double thrust,
+	double burnTime,
+	double propellantMass,
+	double dryMass)
+{
+	if (!(burnTime >= 0))
+	{
+		throw new IllegalArgumentException(
+			"A rocket cannot burn for " + burnTime + " seconds");
+	}
+	if (!(propellantMass >= 0))
+	{
+		throw new IllegalArgumentException(
+			"A rocket cannot burn " + propellantMass + " kg");
+	}
+	if (!(dryMass > 0))
+	{
+		throw new IllegalArgumentException(
+			"A rocket needs a positive dry mass, not " + dryMass + " kg");
+	}
+	this.thrust = thrust;
+	this.burnTime = burnTime;
+	this.propellantMass = propellantMass;
+	this.dryMass = dryMass;
+}
+/**
+ * Set the time, in seconds, of each integration step.
+ *
+ * @param step the time of each integration step
+ */
+public void setStep(double step)
+{
+	if (!(step > 0))
+	{
+		throw new IllegalArgumentException(
+			"A step must take some time");
+	}
+	this.step = step;
+}
+}
@@ -1,5 +1,7 @@
 package com.oozinoz.units;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /*
  * Copyright (c) 2001 Steven J. Metsker.
  * 
@@ -32,37 +34,86 @@ public class Dimension
 	protected int lengthDim;
 	protected int massDim;
 	protected int timeDim;
+	protected int code;
+	protected int index;
+	/*
+	 * A code packs the three exponents into one int, each in a
+	 * 9-bit slot as its value plus BIAS in the low 8 bits, over
+	 * a guard bit that stays clear while exponents stay between
+	 * -128 and 127. Adding or subtracting codes, and correcting
+	 * the bias, multiplies or divides dimensions, and any slot
+	 * that goes out of range sets its guard bit.
+	 */
+	protected static final int SLOT = 9;
+	protected static final int BIAS = 128 | 128 << SLOT | 128 << 2 * SLOT;
+	protected static final int GUARDS = 256 | 256 << SLOT | 256 << 2 * SLOT;
+	/*
+	 * Dimensions whose exponents all lie between -SMALL and SMALL
+	 * live in an array, indexed by their exponents; of() keeps any
+	 * others in a map from their codes.
+	 */
+	protected static final int SMALL = 4;
+	protected static final int SIDE = 2 * SMALL + 1;
+	public static final int TABLE_SIZE = SIDE * SIDE * SIDE;
+	protected static final Dimension[] table = new Dimension[TABLE_SIZE];
+	protected static final ConcurrentHashMap others =
+		new ConcurrentHashMap();
+
+	static
+	{
+		for (int i = 0; i < TABLE_SIZE; i++)
+		{
+			table[i] = new Dimension(
+				i / (SIDE * SIDE) - SMALL,
+				i / SIDE % SIDE - SMALL,
+				i % SIDE - SMALL);
+		}
+	}
 /**
  * Create a new dimension object with the given extensions
- * of length, mass, and time.
+ * of length, mass, and time. Dimension arithmetic and the
+ * constants in DimensionConstants use the shared instances
+ * that <code>of()</code> returns instead. Each exponent must
+ * lie between -128 and 127.
  *
  * @param lengthDim the length dimension (1 represents length,
  *                  2 represents area, 3 represents volume)
  * @param massDim the mass dimension (usually 0 or 1)
  * @param timeDim the time dimension (usually between 1 
  *                and -2)
+ * @throws MeasureException if an exponent is out of range
  */
 public Dimension(int lengthDim, int massDim, int timeDim)
 {
 	this.lengthDim = lengthDim;
 	this.massDim = massDim;
 	this.timeDim = timeDim;
+	this.code = pack(lengthDim, massDim, timeDim);
+	this.index = index(lengthDim, massDim, timeDim);
+}
+/**
+ * Create the dimension that a code from <code>pack()</code>
+ * or from code arithmetic represents.
+ *
+ * @param code the packed exponents of length, mass, and time
+ * @return a new dimension
+ */
+public static Dimension fromCode(int code)
+{
+	return of(exponent(code, 0), exponent(code, 1), exponent(code, 2));
 }
 /**
- * Create a new dimension by dividing this one by another. For
- * example, speed is length (1, 0, 0) divided by time
- * (0, 0, 1), resulting in (1, 0, -1). Dimensional arithmetic
+ * Return the dimension that results from dividing this one
+ * by another. For example, speed is length (1, 0, 0) divided
+ * by time (0, 0, 1), resulting in (1, 0, -1). Dimensional arithmetic
  * adds or subtracts the dimensions (or exponents) of length,
  * mass, and time.
  *
- * @return a new dimension
+ * @return the shared instance of the resulting dimension
  */
 public Dimension divide(Dimension d)
 {
-	return new Dimension(
-		lengthDim - d.lengthDim,
-		massDim - d.massDim,
-		timeDim - d.timeDim);
+	return fromCode(divideCode(code, d.code));
 }
 /**
  * Return true if these dimensions share the same extension
@@ -83,16 +134,14 @@ public boolean equals(Object o)
 		&& timeDim == d.timeDim;
 }
 /**
- * Create a new dimension by multiplying this one by another.
+ * Return the dimension that results from multiplying this one
+ * by another.
  *
- * @return a new dimension
+ * @return the shared instance of the resulting dimension
  */
 public Dimension times(Dimension d)
 {
-	return new Dimension(
-		lengthDim + d.lengthDim,
-		massDim + d.massDim,
-		timeDim + d.timeDim);
+	return fromCode(timesCode(code, d.code));
 }
 /**
  * Return a textual representation of this dimension.
@@ -112,6 +161,150 @@ public String toString()
 	return buf.toString();
 }
 
+/*
+ * Return the index in the table of small dimensions of the
+ * dimension with the given exponents, or -1 if any exponent is
+ * too big for the table.
+ */
+protected static int index(int lengthDim, int massDim, int timeDim)
+{
+	if (lengthDim < -SMALL || lengthDim > SMALL
+		|| massDim < -SMALL || massDim > SMALL
+		|| timeDim < -SMALL || timeDim > SMALL)
+	{
+		return -1;
+	}
+	return ((lengthDim + SMALL) * SIDE + massDim + SMALL) * SIDE
+		+ timeDim + SMALL;
+}
+/**
+ * Return the index of this dimension in the table of small
+ * dimensions, or -1 if an exponent is too big for the table.
+ * Classes can keep facts about dimensions in arrays of size
+ * <code>TABLE_SIZE</code> that they index this way.
+ *
+ * @return the index of this dimension, or -1
+ */
+public int getIndex()
+{
+	return index;
+}
+/**
+ * Return the shared instance of this dimension.
+ *
+ * @return the shared instance of this dimension
+ */
+public Dimension intern()
+{
+	return of(lengthDim, massDim, timeDim);
+}
+/**
+ * Return the shared instance of the dimension with the given
+ * extensions of length, mass, and time.
+ *
+ * @param lengthDim the length dimension
+ * @param massDim the mass dimension
+ * @param timeDim the time dimension
+ * @return the shared instance of the dimension
+ * @throws MeasureException if an exponent lies outside -128
+ *         to 127
+ */
+public static Dimension of(int lengthDim, int massDim, int timeDim)
+{
+	int i = index(lengthDim, massDim, timeDim);
+	if (i >= 0)
+	{
+		return table[i];
+	}
+	Integer key = Integer.valueOf(pack(lengthDim, massDim, timeDim));
+	Dimension d = (Dimension) others.get(key);
+	if (d == null)
+	{
+		Dimension created = new Dimension(lengthDim, massDim, timeDim);
+		d = (Dimension) others.putIfAbsent(key, created);
+		if (d == null)
+		{
+			d = created;
+		}
+	}
+	return d;
+}
+/*
+ * Return the exponent in the given slot of a code.
+ */
+protected static int exponent(int code, int slot)
+{
+	return (code >>> slot * SLOT & 255) - 128;
+}
+/**
+ * Return the code that packs the three exponents of this
+ * dimension into one int. Two dimensions are equal when their
+ * codes are.
+ *
+ * @return the packed exponents of this dimension
+ */
+public int getCode()
+{
+	return code;
+}
+/**
+ * Pack exponents of length, mass, and time into one int.
+ *
+ * @param lengthDim the length dimension
+ * @param massDim the mass dimension
+ * @param timeDim the time dimension
+ * @return the packed exponents
+ * @throws MeasureException if an exponent lies outside -128
+ *         to 127
+ */
+public static int pack(int lengthDim, int massDim, int timeDim)
+{
+	int code = BIAS + lengthDim + (massDim << SLOT) + (timeDim << 2 * SLOT);
+	if (lengthDim < -128 || lengthDim > 127
+		|| massDim < -128 || massDim > 127
+		|| timeDim < -128 || timeDim > 127)
+	{
+		throw new MeasureException(
+			"Dimension exponents must lie between -128 and 127");
+	}
+	return code;
+}
+/**
+ * Return the code for the product of two dimensions' codes.
+ *
+ * @param a a dimension's code
+ * @param b another dimension's code
+ * @return the code of the product of the dimensions
+ */
+public static int timesCode(int a, int b)
+{
+	return checkCode(a + b - BIAS);
+}
+/**
+ * Return the code for one dimension's code divided by
+ * another's.
+ *
+ * @param a a dimension's code
+ * @param b the code of the dimension to divide by
+ * @return the code of the quotient of the dimensions
+ */
+public static int divideCode(int a, int b)
+{
+	return checkCode(a - b + BIAS);
+}
+/*
+ * Complain if arithmetic on codes took an exponent out of
+ * range.
+ */
+protected static int checkCode(int code)
+{
+	if ((code & GUARDS) != 0)
+	{
+		throw new MeasureException(
+			"Dimension exponents must lie between -128 and 127");
+	}
+	return code;
+}
 /**
  * Return a code that is suitable for indexing this dimension.
  *
@@ -18,10 +18,10 @@ package com.oozinoz.units;
  */
 public interface DimensionConstants {
 	// fundamental dimensions
-	Dimension CONSTANT = new Dimension(0, 0, 0);
-	Dimension LENGTH = new Dimension(1, 0, 0);
-	Dimension MASS = new Dimension(0, 1, 0);
-	Dimension TIME = new Dimension(0, 0, 1);
+	Dimension CONSTANT = Dimension.of(0, 0, 0);
+	Dimension LENGTH = Dimension.of(1, 0, 0);
+	Dimension MASS = Dimension.of(0, 1, 0);
+	Dimension TIME = Dimension.of(0, 0, 1);
 	// derived dimensions
 	Dimension AREA = LENGTH.times(LENGTH);
 	Dimension VOLUME = AREA.times(LENGTH);
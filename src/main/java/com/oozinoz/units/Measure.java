@@ -1,5 +1,9 @@
 package com.oozinoz.units;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
 /*
  * Copyright (c) 2001 Steven J. Metsker.
  * 
@@ -27,6 +31,44 @@ public class Measure implements DimensionConstants
 {
 	protected double magnitude;
 	protected Dimension dimension;
+	/*
+	 * The subclass, counting from 1 in the order of KINDS, and
+	 * the unit label for each dimension, by the dimension's index.
+	 */
+	protected static final Dimension[] KINDS = { CONSTANT, LENGTH,
+		AREA, VOLUME, MASS, TIME, SPEED, ACCELERATION, FORCE,
+		PRESSURE, ENERGY, POWER, DENSITY };
+	protected static final String[] LABELS = { "", " meters",
+		" meters**2", " meters**3", " kilograms", " seconds",
+		" meters/second", " meters/second**2", " newtons", null,
+		" joules", " watts", " kilograms/meter**3" };
+	/*
+	 * Powers of ten; those up to 10**22 are exact as doubles.
+	 */
+	protected static final double[] POWERS = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+		1e20, 1e21, 1e22 };
+	protected static final long[] LONG_POWERS = new long[19];
+	// no double needs more significant digits than this
+	protected static final int MAX_DIGITS = 17;
+	protected static final int[] KIND = new int[Dimension.TABLE_SIZE];
+	protected static final String[] LABEL =
+		new String[Dimension.TABLE_SIZE];
+
+	static
+	{
+		LONG_POWERS[0] = 1;
+		for (int i = 1; i < LONG_POWERS.length; i++)
+		{
+			LONG_POWERS[i] = LONG_POWERS[i - 1] * 10;
+		}
+		for (int i = 0; i < KINDS.length; i++)
+		{
+			KIND[KINDS[i].index] = i + 1;
+			LABEL[KINDS[i].index] = LABELS[i];
+		}
+	}
 /**
  * Create a measure with the given magnitude and dimension.
  * The usual way to create a dimension is from existing
@@ -72,149 +114,298 @@ public static Measure measure(
 	double magnitude,
 	Dimension d)
 {
-	if (d.equals(CONSTANT))
+	switch (d.index < 0 ? 0 : KIND[d.index])
 	{
-		return new Constant(magnitude);
+		case 1 :
+			return new Constant(magnitude);
+		case 2 :
+			return new Length(magnitude);
+		case 3 :
+			return new Area(magnitude);
+		case 4 :
+			return new Volume(magnitude);
+		case 5 :
+			return new Mass(magnitude);
+		case 6 :
+			return new Time(magnitude);
+		case 7 :
+			return new Speed(magnitude);
+		case 8 :
+			return new Acceleration(magnitude);
+		case 9 :
+			return new Force(magnitude);
+		case 10 :
+			return new Pressure(magnitude);
+		case 11 :
+			return new Energy(magnitude);
+		case 12 :
+			return new Power(magnitude);
+		case 13 :
+			return new Density(magnitude);
 	}
-	if (d.equals(LENGTH))
+	// default
+	return new Measure(magnitude, d);
+}
+/**
+ * Return the measure that results from adding this measure
+ * to the one supplied.
+ *
+ * @param Measure the measure to add
+ * @return a measure that results from adding this measure
+ *         to the one supplied.
+ */
+public Measure plus(Measure m) throws MeasureException 
+{
+	if (dimension.code != m.dimension.code)
 	{
-		return new Length(magnitude);
+		throw new MeasureException(
+			"Cannot add " + this +" and " + m);
 	}
-	if (d.equals(AREA))
+	return new Measure(magnitude + m.magnitude, dimension);
+}
+/**
+ * Round a number to the indicated number of significant
+ * digits.
+ *
+ * @param number the number to round
+ * @param nDigit the number of significant digits, from 1 to
+ *               17; fewer count as 1, and more leave the
+ *               number as it is
+ * @return a rounded number
+ */
+public static double round(double x, int nDigit)
+{
+	if (x == 0 || Double.isNaN(x) || Double.isInfinite(x)
+		|| nDigit > MAX_DIGITS)
 	{
-		return new Area(magnitude);
+		return x;
 	}
-	if (d.equals(VOLUME))
+	nDigit = Math.max(1, nDigit);
+	double ax = Math.abs(x);
+	int exponent = roundExponent(ax, nDigit);
+	double rounded = value(digits(ax, exponent), exponent);
+	return x < 0 ? -rounded : rounded;
+	/*
+
+	How this works.
+
+	Let's say I have 1234.5678 and I want 2 significant digits
+	(that is, 1200.0). The strategy is to find the "right"
+	power of 10 to work with. In this example, the right power
+	is 10**2. To complete the rounding, divide by 100, round
+	using Math.round(), and multiply by 100.
+
+	The power is 10**(magnitude - (nDigit - 1)), where the
+	"magnitude" is floor(log10(x)), in the example 3. Just
+	below a power of ten, Math.log10() can round up to the
+	power, so roundExponent() checks that rounding leaves
+	nDigit digits and, if not, uses the next power down.
+
+	The code takes powers of 10 from the table POWERS because
+	Math.pow() was creating problems, specifically with negative
+	exponents. For example, Math.pow(10, -1) is not exactly .1.
+	Every power in the table, up to 10**22, is exact, so that
+	dividing or multiplying by one rounds only once. To get 
+	.00033 from .000333333, the code multiplies by 10**5, 
+	rounds to 33, and divides 33 by the exact 10**5, instead of
+	multiplying by an inexact .00001. 
+
+	Rounding once still leaves the scaled number a little off,
+	and when it lands next to a half, Math.round() can go the
+	wrong way. In that case, and whenever the power is beyond
+	10**22 or the digits are too many for a double to hold,
+	digits() and value() do the work with a BigDecimal, which
+	is exact, so the result is always the double nearest to
+	the rounded number.
+	*/
+}
+/*
+ * Return the power of ten by which to divide a positive,
+ * finite number so that rounding it leaves nDigit digits.
+ */
+protected static int roundExponent(double x, int nDigit)
+{
+	int exponent = (int) Math.floor(Math.log10(x)) - (nDigit - 1);
+	if (digits(x, exponent) < LONG_POWERS[nDigit - 1])
 	{
-		return new Volume(magnitude);
+		exponent--;
 	}
-	if (d.equals(MASS))
+	return exponent;
+}
+/*
+ * Return a positive, finite number divided by 10**exponent
+ * and rounded, halves up, to a whole number.
+ */
+protected static long digits(double x, int exponent)
+{
+	if (exponent >= -22 && exponent <= 22)
 	{
-		return new Mass(magnitude);
+		double scaled = exponent <= 0
+			? x * POWERS[-exponent] : x / POWERS[exponent];
+		// scaled is within half an ulp of the exact quotient
+		if (Math.abs(scaled - Math.floor(scaled) - .5) > Math.ulp(scaled))
+		{
+			return Math.round(scaled);
+		}
 	}
-	if (d.equals(TIME))
+	return new BigDecimal(x).scaleByPowerOfTen(-exponent)
+		.setScale(0, RoundingMode.HALF_UP).longValue();
+}
+/*
+ * Return the double nearest to digits times 10**exponent.
+ */
+protected static double value(long digits, int exponent)
+{
+	if (exponent >= -22 && exponent <= 22 && digits < 1L << 53)
 	{
-		return new Time(magnitude);
+		return exponent >= 0
+			? digits * POWERS[exponent] : digits / POWERS[-exponent];
 	}
-	if (d.equals(SPEED))
+	return new BigDecimal(digits).scaleByPowerOfTen(exponent)
+		.doubleValue();
+}
+/**
+ * Write a number, rounded to the indicated number of
+ * significant digits, to the given StringBuilder, in the form
+ * that Double.toString() gives the rounded number.
+ *
+ * @param x the number to write
+ * @param nDigit the number of significant digits, from 1 to
+ *               17; fewer count as 1, and more as 17
+ * @param out where to write the number
+ */
+public static void format(double x, int nDigit, StringBuilder out)
+{
+	try
+	{
+		format(x, nDigit, (Appendable) out);
+	}
+	catch (IOException e)
+	{
+		// a StringBuilder does not throw
+		throw new IllegalStateException(e.toString());
+	}
+}
+/**
+ * Write a number, rounded to the indicated number of
+ * significant digits, to the given Appendable, in the form
+ * that Double.toString() gives the rounded number, without
+ * creating any strings along the way.
+ *
+ * @param x the number to write
+ * @param nDigit the number of significant digits, from 1 to
+ *               17; fewer count as 1, and more as 17
+ * @param out where to write the number
+ * @throws IOException if the Appendable throws it
+ */
+public static void format(double x, int nDigit, Appendable out)
+	throws IOException 
+{
+	if (Double.isNaN(x))
 	{
-		return new Speed(magnitude);
+		out.append("NaN");
+		return;
 	}
-	if (d.equals(ACCELERATION))
+	if (x < 0 || (x == 0 && 1 / x < 0))
 	{
-		return new Acceleration(magnitude);
+		out.append('-');
+		x = -x;
 	}
-	if (d.equals(FORCE))
+	if (Double.isInfinite(x))
 	{
-		return new Force(magnitude);
+		out.append("Infinity");
+		return;
 	}
-	if (d.equals(PRESSURE))
+	if (x == 0)
 	{
-		return new Pressure(magnitude);
+		out.append("0.0");
+		return;
 	}
-	if (d.equals(ENERGY))
+	int exponent = roundExponent(x, Math.max(1, Math.min(nDigit, MAX_DIGITS)));
+	long digits = digits(x, exponent);
+	while (digits % 10 == 0)
 	{
-		return new Energy(magnitude);
+		digits /= 10;
+		exponent++;
 	}
-	if (d.equals(POWER))
+	int nDigits = 1;
+	while (nDigits < LONG_POWERS.length && digits >= LONG_POWERS[nDigits])
 	{
-		return new Power(magnitude);
+		nDigits++;
 	}
-	if (d.equals(DENSITY))
+	// the power of ten of the leading digit
+	int lead = exponent + nDigits - 1;
+	if (lead < -3 || lead >= 7)
 	{
-		return new Density(magnitude);
+		appendDigits(digits, nDigits, 0, 1, out);
+		out.append('.');
+		if (nDigits == 1)
+		{
+			out.append('0');
+		}
+		else
+		{
+			appendDigits(digits, nDigits, 1, nDigits, out);
+		}
+		out.append('E');
+		appendInt(lead, out);
+		return;
+	}
+	if (lead < 0)
+	{
+		out.append("0.");
+		for (int i = -1; i > lead; i--)
+		{
+			out.append('0');
+		}
+		appendDigits(digits, nDigits, 0, nDigits, out);
+		return;
+	}
+	appendDigits(digits, nDigits, 0, Math.min(nDigits, lead + 1), out);
+	for (int i = nDigits; i <= lead; i++)
+	{
+		out.append('0');
+	}
+	out.append('.');
+	if (nDigits > lead + 1)
+	{
+		appendDigits(digits, nDigits, lead + 1, nDigits, out);
+	}
+	else
+	{
+		out.append('0');
 	}
-	// default
-	return new Measure(magnitude, d);
 }
-/**
- * Return the measure that results from adding this measure
- * to the one supplied.
- *
- * @param Measure the measure to add
- * @return a measure that results from adding this measure
- *         to the one supplied.
+/*
+ * Write digits from..to, counting from the left, of a whole
+ * number that has nDigits digits.
  */
-public Measure plus(Measure m) throws MeasureException 
+protected static void appendDigits(
+	long digits, int nDigits, int from, int to, Appendable out)
+	throws IOException 
 {
-	if (!(dimension.equals(m.dimension)))
+	for (int i = from; i < to; i++)
 	{
-		throw new MeasureException(
-			"Cannot add " + this +" and " + m);
+		out.append((char) ('0' + digits / LONG_POWERS[nDigits - 1 - i] % 10));
 	}
-	return new Measure(magnitude + m.magnitude, dimension);
 }
-/**
- * Round a number to the indicated number of significant
- * digits.
- *
- * @param number the number to round
- * @param nDigit the number of significant digits
- * @return a rounded number
+/*
+ * Write an int in decimal.
  */
-public static double round(double x, int nDigit)
+protected static void appendInt(int n, Appendable out)
+	throws IOException 
 {
-	double exponent = Math.log(x) / Math.log(10);
-	int magnitude = (int) Math.floor(exponent);
-	int divisorExponent = magnitude - (nDigit - 1);
-	int divisor = 1;
-	for (int i = 0; i < Math.abs(divisorExponent); i++)
-	{
-		divisor *= 10;
-	}
-	if (divisorExponent > 0)
+	if (n < 0)
 	{
-		return Math.round(x / divisor) * divisor;
+		out.append('-');
+		n = -n;
 	}
-	else
+	int nDigits = 1;
+	while (nDigits < 10 && n >= LONG_POWERS[nDigits])
 	{
-		return Math.round(x * divisor) / (double) divisor;
+		nDigits++;
 	}
-	/* 
-	
-	How this works.
-	
-	Let's say I have 1234.5678 and I want 2 significant digits 
-	(that is, 1200.0). The strategy is to find the "right" 
-	power of 10 to work with. In this example, the right number 
-	is 100. To complete the rounding, divide by 100, round 
-	using Math.round(), and multiply by 100. The trick is to 
-	find the power of 10 to work with.
-	
-	The starting number, written in exponential notation is 
-	1.2345678 * 10**3. We want log base 10 of this number to 
-	get a grip on its size.
-	
-	There is no log base 10 function, but suppose
-	
-		y = log 10 (x)
-	
-	Then
-	
-		10 ** y = x
-		Ln(10 ** y) = Ln(x) // Ln is a function I do have
-		y * Ln(10) = Ln(x)
-		y = Ln(x)/Ln(10) // this is a formula for y
-		
-	The "magnitude," for lack of a better term, is floor(y), in 
-	the example case 3.
-	
-	I said I want 2 significant digits; in the example I would 
-	divide by 100; in general the divisor is:
-	
-		10**(magnitude - (nDigit - 1))
-		
-	In this case the exponent is:
-	
-		3 - (2 - 1), or 2
-	
-	The code calculates 10**divisorExponent manually because Math.pow()
-	was creating problems, specifically with negative exponents. For
-	example, Math.pow(10, -1) is not exactly .1.	
-		
-	The rest of the algorithm is: divide by the divisor, round, 
-	and multiply by the divisor.
-	*/
+	appendDigits(n, nDigits, 0, nDigits, out);
 }
 /**
  * Return the measure that results from multiplying this 
@@ -243,62 +434,58 @@ public Measure times(Measure m)
 		dimension.times(m.dimension));
 }
 /**
- * Return a textual representation of this measure.
+ * Write this measure, with its magnitude rounded to four
+ * significant digits, to the given Appendable, without
+ * creating any strings along the way.
  *
- * @return a textual representation of this measure
+ * @param out where to write this measure
+ * @throws IOException if the Appendable throws it
  */
-public String toString()
+public void appendTo(Appendable out) throws IOException 
 {
-	double mag = round(magnitude, 4);
-	if (dimension.equals(CONSTANT))
+	format(magnitude, 4, out);
+	String label = dimension.index < 0 ? null : LABEL[dimension.index];
+	if (label != null)
 	{
-		return "" + mag;
+		out.append(label);
+		return;
 	}
-	if (dimension.equals(LENGTH))
-	{
-		return "" + mag + " meters";
-	}
-	if (dimension.equals(AREA))
-	{
-		return "" + mag + " meters**2";
-	}
-	if (dimension.equals(VOLUME))
-	{
-		return "" + mag + " meters**3";
-	}
-	if (dimension.equals(MASS))
-	{
-		return "" + mag + " kilograms";
-	}
-	if (dimension.equals(TIME))
-	{
-		return "" + mag + " seconds";
-	}
-	if (dimension.equals(SPEED))
-	{
-		return "" + mag + " meters/second";
-	}
-	if (dimension.equals(ACCELERATION))
-	{
-		return "" + mag + " meters/second**2";
-	}
-	if (dimension.equals(FORCE))
-	{
-		return "" + mag + " newtons";
-	}
-	if (dimension.equals(ENERGY))
-	{
-		return "" + mag + " joules";
-	}
-	if (dimension.equals(POWER))
+	out.append('(');
+	appendInt(dimension.lengthDim, out);
+	out.append(',');
+	appendInt(dimension.massDim, out);
+	out.append(',');
+	appendInt(dimension.timeDim, out);
+	out.append(')');
+}
+/**
+ * Write this measure, with its magnitude rounded to four
+ * significant digits, to the given StringBuilder.
+ *
+ * @param out where to write this measure
+ */
+public void appendTo(StringBuilder out)
+{
+	try
 	{
-		return "" + mag + " watts";
+		appendTo((Appendable) out);
 	}
-	if (dimension.equals(DENSITY))
+	catch (IOException e)
 	{
-		return "" + mag + " kilograms/meter**3";
+		// a StringBuilder does not throw
+		throw new IllegalStateException(e.toString());
 	}
-	return "" + mag + dimension;
+}
+/**
+ * Return a textual representation of this measure.
+ *
+ * @return a textual representation of this measure
+ */
+public String toString()
+{
+	StringBuilder out = new StringBuilder(32);
+	appendTo(out);
+	return out.toString();
 }
 
 /**
@@ -333,7 +520,7 @@ public Measure as(Measure m)
  */
 public boolean equals(Measure m, double tolerance)
 {
-	if (dimension != m.getDimension())
+	if (dimension.code != m.dimension.code)
 	{
 		return false;
 	}
@@ -373,7 +560,7 @@ public double getMagnitude()
  */
 public Measure minus(Measure m) throws MeasureException 
 {
-	if (!(dimension.equals(m.dimension)))
+	if (dimension.code != m.dimension.code)
 	{
 		throw new MeasureException(
 			"Cannot subtract " + m + " from " + this);
@@ -0,0 +1,246 @@
+package com.oozinoz.units;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A measure accumulator is a mutable measure that works out
+ * a chain of measure arithmetic without creating an object at
+ * each step. The accumulator keeps its dimension as a code
+ * that packs the exponents of length, mass, and time into one
+ * int, so that multiplying or dividing dimensions adds or
+ * subtracts two ints, and checking that two dimensions match
+ * compares two ints. For example,
+ * <blockquote><pre>
+ *     Force f = (Force) new MeasureAccumulator(burnRate)
+ *         .times(burnArea)
+ *         .times(burnTime)
+ *         .times(specificImpulse)
+ *         .times(density)
+ *         .toMeasure();
+ * </pre></blockquote>
+ * creates only the accumulator and the result, where the same
+ * chain of Measure arithmetic creates a new measure and a new
+ * dimension at each step.
+ * <p>
+ * A loop can also reuse one accumulator, calling <code>set()
+ * </code> at the top of each pass and checking the result with
+ * <code>is()</code>, without creating any objects at all.
+ */
+public class MeasureAccumulator 
+{
+	protected double magnitude;
+	protected int code;
+
+/**
+ * Create an accumulator that holds the dimensionless
+ * constant 1.
+ */
+public MeasureAccumulator()
+{
+	set(1, DimensionConstants.CONSTANT);
+}
+/**
+ * Create an accumulator that holds the given measure.
+ *
+ * @param m the measure to start with
+ */
+public MeasureAccumulator(Measure m)
+{
+	set(m);
+}
+/**
+ * Divide the measure this accumulator holds by the given
+ * measure.
+ *
+ * @param m the measure to divide by
+ * @return this accumulator
+ */
+public MeasureAccumulator divide(Measure m)
+{
+	magnitude /= m.magnitude;
+	code = Dimension.divideCode(code, m.dimension.code);
+	return this;
+}
+/**
+ * Divide the measure this accumulator holds by the measure
+ * another accumulator holds.
+ *
+ * @param a the accumulator to divide by
+ * @return this accumulator
+ */
+public MeasureAccumulator divide(MeasureAccumulator a)
+{
+	magnitude /= a.magnitude;
+	code = Dimension.divideCode(code, a.code);
+	return this;
+}
+/**
+ * Return the code of the dimension of the measure this
+ * accumulator holds.
+ *
+ * @return the packed exponents of this accumulator's dimension
+ */
+public int getCode()
+{
+	return code;
+}
+/**
+ * Return the dimension of the measure this accumulator holds.
+ *
+ * @return the dimension of the measure this accumulator holds
+ */
+public Dimension getDimension()
+{
+	return Dimension.fromCode(code);
+}
+/**
+ * Return the magnitude, in an MKS system, of the measure this
+ * accumulator holds.
+ *
+ * @return the magnitude of the measure this accumulator holds
+ */
+public double getMagnitude()
+{
+	return magnitude;
+}
+/**
+ * Return true if the measure this accumulator holds has the
+ * given dimension.
+ *
+ * @param d a dimension
+ * @return true if this accumulator holds a measure with the
+ *         given dimension
+ */
+public boolean is(Dimension d)
+{
+	return code == d.code;
+}
+/**
+ * Subtract the given measure from the one this accumulator
+ * holds.
+ *
+ * @param m the measure to subtract
+ * @return this accumulator
+ * @throws MeasureException if the measures have different
+ *         dimensions
+ */
+public MeasureAccumulator minus(Measure m) throws MeasureException 
+{
+	if (code != m.dimension.code)
+	{
+		throw new MeasureException(
+			"Cannot subtract " + m + " from " + toMeasure());
+	}
+	magnitude -= m.magnitude;
+	return this;
+}
+/**
+ * Add the given measure to the one this accumulator holds.
+ *
+ * @param m the measure to add
+ * @return this accumulator
+ * @throws MeasureException if the measures have different
+ *         dimensions
+ */
+public MeasureAccumulator plus(Measure m) throws MeasureException 
+{
+	if (code != m.dimension.code)
+	{
+		throw new MeasureException(
+			"Cannot add " + toMeasure() + " and " + m);
+	}
+	magnitude += m.magnitude;
+	return this;
+}
+/**
+ * Make this accumulator hold the given measure.
+ *
+ * @param m the measure to hold
+ * @return this accumulator
+ */
+public MeasureAccumulator set(Measure m)
+{
+	return set(m.magnitude, m.dimension);
+}
+/**
+ * Make this accumulator hold a measure with the given
+ * magnitude and dimension.
+ *
+ * @param magnitude the magnitude, in an MKS system
+ * @param d the dimension
+ * @return this accumulator
+ */
+public MeasureAccumulator set(double magnitude, Dimension d)
+{
+	this.magnitude = magnitude;
+	this.code = d.code;
+	return this;
+}
+/**
+ * Multiply the magnitude of the measure this accumulator
+ * holds by the given number.
+ *
+ * @param d the number to multiply by
+ * @return this accumulator
+ */
+public MeasureAccumulator times(double d)
+{
+	magnitude *= d;
+	return this;
+}
+/**
+ * Multiply the measure this accumulator holds by the given
+ * measure.
+ *
+ * @param m the measure to multiply by
+ * @return this accumulator
+ */
+public MeasureAccumulator times(Measure m)
+{
+	magnitude *= m.magnitude;
+	code = Dimension.timesCode(code, m.dimension.code);
+	return this;
+}
+/**
+ * Multiply the measure this accumulator holds by the measure
+ * another accumulator holds.
+ *
+ * @param a the accumulator to multiply by
+ * @return this accumulator
+ */
+public MeasureAccumulator times(MeasureAccumulator a)
+{
+	magnitude *= a.magnitude;
+	code = Dimension.timesCode(code, a.code);
+	return this;
+}
+/**
+ * Return a measure, of an appropriate subtype of Measure if
+ * there is one, equal to the one this accumulator holds.
+ *
+ * @return a measure equal to the one this accumulator holds
+ */
+public Measure toMeasure()
+{
+	return Measure.measure(magnitude, getDimension());
+}
+/**
+ * Return a textual representation of the measure this
+ * accumulator holds.
+ *
+ * @return a textual representation of this accumulator's
+ *         measure
+ */
+public String toString()
+{
+	return toMeasure().toString();
+}
+}
@@ -0,0 +1,30 @@
+package com.oozinoz.util;
+
+import java.util.*;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+ 
+/**
+ * Define a type of node that has children. A composite
+ * iterator walks down into nodes of this type, and treats
+ * other nodes as leaves.
+ *
+ * @see CompositeIterator
+ */
+public interface Composite {
+/**
+ * Return this node's children.
+ *
+ * @return this node's children
+ */
+public abstract List getChildren();
+}
@@ -14,6 +14,16 @@ import java.util.*;
  */
 /**
  * Iterate over a component that has children.
+ * <p>
+ * This iterator walks the composite depth-first, keeping its
+ * own stack of the composites it is inside, rather than
+ * creating an iterator for each one. It walks into children
+ * that implement Composite, and returns other children as
+ * leaves.
+ * <p>
+ * If the set of visited nodes is null, the iterator assumes
+ * that the composite is a tree, and does not track the nodes
+ * it visits.
  *
  * @author Steven J. Metsker
  *
@@ -21,22 +31,23 @@ import java.util.*;
 public class CompositeIterator
 extends ComponentIterator 
 {
-
-
-
-
-
-
-	protected Iterator children;
 	protected Object peek;
-	protected ComponentIterator subiterator;
+	protected boolean started = false;
+	protected int depth = 0;
+	// the stack of composites, their children, and the
+	// index of the next child to look at in each
+	protected Object[] nodes = new Object[8];
+	protected List[] childLists = new List[8];
+	protected int[] childIndexes = new int[8];
+	protected int top = -1;
 
 /**
  * Create an iterator over a component that has children
  *
  * @param node the node to iterate over
  * @param List the node's children
- * @param visited a set to track visited nodes
+ * @param visited a set to track visited nodes, or null if
+ *                the node is atop a tree
  */
 public CompositeIterator(
 	Object node,
@@ -44,24 +55,20 @@ public CompositeIterator(
 	Set visited)
 {
 	super(node, visited);
-	children = components.iterator();
+	push(node, components);
 }
 
 /**
- * Return the current depth of the iteration. Iterators walk
- * down a tree, so the depth of this iterator is the depth
- * of a subiterator plus one.
+ * Return the current depth of the iteration, that is, the
+ * depth of the node that next() will return, or, if there is
+ * no node waiting, of the node that next() last returned.
  *
  * @return the current depth of the iteration (that is, for
  *         the current node the number of nodes above it)
  */
 public int depth()
 {
-	if (subiterator != null)
-	{
-		return subiterator.depth() + 1;
-	}
-	return 0;
+	return depth;
 }
 
 /**
@@ -91,11 +98,12 @@ public Object next()
 		peek = null;
 		return o;
 	}
-	if (!visited.contains(node))
+	if (!started)
 	{
-		visited.add(node);
-		if (showInterior)
+		started = true;
+		if (visit(node) && showInterior)
 		{
+			depth = 0;
 			return node;
 		}
 	}
@@ -103,34 +111,76 @@ public Object next()
 }
 
 /*
- * Usually just return the subiterator's next element. But
- * if the subiterator doesn't exist or doesn't have a
- * next element, create an iterator for the next child.
- * (If there is no next child, just return null.) Create
- * an iterator for this child and return this iterator's
- * next element. 
+ * Return the next unvisited child of the composite atop the
+ * stack, walking into composite children and popping
+ * composites whose children are used up. Return null when the
+ * stack is empty.
  */
 protected Object nextDescendant()
 {
-	while (true)
+	while (top >= 0)
 	{
-		if (subiterator != null)
+		List children = childLists[top];
+		int i = childIndexes[top];
+		if (i >= children.size())
 		{
-			if (subiterator.hasNext())
-			{
-				return subiterator.next();
-			}
+			nodes[top] = null;
+			childLists[top] = null;
+			top--;
+			continue;
 		}
-		if (!children.hasNext())
+		childIndexes[top] = i + 1;
+		Object child = children.get(i);
+		if (!visit(child))
 		{
-			return null;
+			continue;
 		}
-		Iterable i = (Iterable) children.next();
-		if (!visited.contains(i))
+		if (child instanceof Composite)
 		{
-			subiterator = i.iterator(visited);
-			subiterator.setShowInterior(showInterior);
+			push(child, ((Composite) child).getChildren());
+			if (showInterior)
+			{
+				depth = top;
+				return child;
+			}
+		}
+		else
+		{
+			depth = top + 1;
+			return child;
 		}
 	}
+	return null;
+}
+
+/*
+ * Start walking the children of the given composite.
+ */
+protected void push(Object composite, List children)
+{
+	if (++top == nodes.length)
+	{
+		int n = nodes.length * 2;
+		nodes = Arrays.copyOf(nodes, n);
+		childLists = Arrays.copyOf(childLists, n);
+		childIndexes = Arrays.copyOf(childIndexes, n);
+	}
+	nodes[top] = composite;
+	childLists[top] = children;
+	childIndexes[top] = 0;
+}
+
+/*
+ * Record a visit to the given node, returning false if the
+ * node was visited before. In a tree, no node is visited
+ * twice.
+ */
+protected boolean visit(Object o)
+{
+	if (visited == null)
+	{
+		return true;
+	}
+	return visited.add(o);
+}
 }
-}
\ No newline at end of file
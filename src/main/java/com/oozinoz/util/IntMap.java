@@ -0,0 +1,242 @@
+package com.oozinoz.util;
+
+/*
+ * Copyright (c) 2001 Steven J. Metsker.
+ * 
+ * Steve Metsker makes no representations or warranties about
+ * the fitness of this software for any particular purpose, 
+ * including the implied warranty of merchantability.
+ *
+ * Please use this software as you wish with the sole
+ * restriction that you may not claim that you wrote it.
+ */
+/**
+ * A map from primitive int keys to non-null values. Unlike a
+ * HashMap, this map does not box its keys, and it keeps keys
+ * and values in two parallel arrays that it probes linearly.
+ * <p>
+ * This map does not support removal.
+ */
+public class IntMap
+{
+	protected int[] keys;
+	protected Object[] values;
+	protected int size = 0;
+	protected int mask;
+
+/**
+ * Create an empty map.
+ */
+public IntMap()
+{
+	this(16);
+}
+
+/**
+ * Create an empty map with room for the given number of
+ * entries before it needs to grow.
+ *
+ * @param expected the number of entries to make room for
+ */
+public IntMap(int expected)
+{
+	int capacity = 4;
+	while (capacity < expected * 2)
+	{
+		capacity <<= 1;
+	}
+	keys = new int[capacity];
+	values = new Object[capacity];
+	mask = capacity - 1;
+}
+
+/**
+ * Return true if this map contains the given key.
+ *
+ * @param key the key to look for
+ * @return true if this map contains the given key
+ */
+public boolean containsKey(int key)
+{
+	return get(key) != null;
+}
+
+/**
+ * Return the value for the given key.
+ *
+ * @param key the key to look up
+ * @return the value for the given key, or null if the key
+ *         is not in this map
+ */
+public Object get(int key)
+{
+	int i = slot(key);
+	while (values[i] != null)
+	{
+		if (keys[i] == key)
+		{
+			return values[i];
+		}
+		i = (i + 1) & mask;
+	}
+	return null;
+}
+
+/**
+ * Map the given key to the given value, replacing any
+ * previous value.
+ *
+ * @param key the key
+ * @param value the value, which may not be null
+ * @return the previous value for the key, or null
+ */
+public Object put(int key, Object value)
+{
+	return put(key, value, true);
+}
+
+/**
+ * Map the given key to the given value unless the key
+ * already has a value.
+ *
+ * @param key the key
+ * @param value the value, which may not be null
+ * @return the existing value for the key, or null if this
+ *         method added the value
+ */
+public Object putIfAbsent(int key, Object value)
+{
+	return put(key, value, false);
+}
+
+/**
+ * Add every entry of the given map to this one, keeping this
+ * map's value for keys that both maps contain.
+ *
+ * @param other the map to copy entries from
+ */
+public void putAllAbsent(IntMap other)
+{
+	for (int i = 0; i < other.values.length; i++)
+	{
+		if (other.values[i] != null)
+		{
+			put(other.keys[i], other.values[i], false);
+		}
+	}
+}
+
+/**
+ * Add every entry of the given map to this one, replacing this
+ * map's value for keys that both maps contain.
+ *
+ * @param other the map to copy entries from
+ */
+public void putAll(IntMap other)
+{
+	for (int i = 0; i < other.values.length; i++)
+	{
+		if (other.values[i] != null)
+		{
+			put(other.keys[i], other.values[i], true);
+		}
+	}
+}
+
+/**
+ * Return the number of entries in this map.
+ *
+ * @return the number of entries in this map
+ */
+public int size()
+{
+	return size;
+}
+
+/**
+ * Return the values in this map, in no particular order.
+ *
+ * @return the values in this map
+ */
+public Object[] values()
+{
+	Object[] result = new Object[size];
+	int n = 0;
+	for (int i = 0; i < values.length; i++)
+	{
+		if (values[i] != null)
+		{
+			result[n++] = values[i];
+		}
+	}
+	return result;
+}
+
+/*
+ * Store the value, replacing an existing one only if asked
+ * to.
+ */
+protected Object put(int key, Object value, boolean replace)
+{
+	if (value == null)
+	{
+		throw new IllegalArgumentException(
+			"IntMap does not hold null values");
+	}
+	int i = slot(key);
+	while (values[i] != null)
+	{
+		if (keys[i] == key)
+		{
+			Object old = values[i];
+			if (replace)
+			{
+				values[i] = value;
+			}
+			return old;
+		}
+		i = (i + 1) & mask;
+	}
+	keys[i] = key;
+	values[i] = value;
+	if (++size * 2 > values.length)
+	{
+		grow();
+	}
+	return null;
+}
+
+/*
+ * Double the table, rehashing every entry.
+ */
+protected void grow()
+{
+	int[] oldKeys = keys;
+	Object[] oldValues = values;
+	keys = new int[oldKeys.length * 2];
+	values = new Object[oldValues.length * 2];
+	mask = keys.length - 1;
+	for (int j = 0; j < oldValues.length; j++)
+	{
+		if (oldValues[j] != null)
+		{
+			int i = slot(oldKeys[j]);
+			while (values[i] != null)
+			{
+				i = (i + 1) & mask;
+			}
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+}
+
+/*
+ * Spread sequential ids, which are common, across the table.
+ */
+protected int slot(int key)
+{
+	int h = key * 0x9E3779B9;
+	return (h ^ (h >>> 16)) & mask;
+}
+}
@@ -20,16 +20,15 @@ import java.util.*;
  */
 public class LeafIterator extends ComponentIterator 
 {
-
-
-
-
+	protected boolean done = false;
 
 /**
  * Create an iterator over a childless node in a composite.
  *
  * @param node the childless node
- * @param visited a set to track visited nodes
+ * @param visited a set to track visited nodes, or null if
+ *                the iterator need not check for an earlier
+ *                visit
  */
 public LeafIterator(Object node, Set visited)
 {
@@ -57,6 +56,10 @@ public int depth()
  */
 public boolean hasNext()
 {
+	if (visited == null)
+	{
+		return !done;
+	}
 	return !visited.contains(node);
 }
 
@@ -69,11 +72,15 @@ public boolean hasNext()
  */
 public Object next()
 {
-	if (visited.contains(node))
+	if (!hasNext())
 	{
 		return null;
 	}
-	visited.add(node);
+	done = true;
+	if (visited != null)
+	{
+		visited.add(node);
+	}
 	return node;
 }
 }
\ No newline at end of file
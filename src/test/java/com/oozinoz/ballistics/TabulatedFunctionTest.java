@@ -0,0 +1,98 @@
+package com.oozinoz.ballistics;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test answering ballistics functions from tables.
+ */
+public class TabulatedFunctionTest {
+
+    /*
+     * Return how far a table strays from the function it
+     * tabulates, at random burn and peak times.
+     */
+    private static double maxError(BallisticsFunction exact, BallisticsFunction table) {
+        Random r = new Random(3);
+        double max = 0;
+        for (int i = 0; i < 200000; i++) {
+            double t = r.nextDouble();
+            double tPeak = r.nextDouble();
+            max = Math.max(max, Math.abs(table.function(t, tPeak) - exact.function(t, tPeak)));
+        }
+        return max;
+    }
+
+    /**
+     * Test that tables of burn rate and thrust stay within the
+     * errors they are built for, and that smaller errors need
+     * bigger tables.
+     */
+    @Test
+    public void testError() {
+        BallisticsFunction[] exact = {Ballistics.exactRate(), Ballistics.exactThrust()};
+        for (int i = 0; i < exact.length; i++) {
+            int size = 0;
+            for (double e = 1e-2; e >= 1e-9; e /= 100) {
+                TabulatedFunction table = new TabulatedFunction(exact[i], e);
+                Assertions.assertThat(maxError(exact[i], table)).isLessThanOrEqualTo(e);
+                Assertions.assertThat(table.getSize()).isGreaterThan(size);
+                size = table.getSize();
+            }
+        }
+    }
+
+    /**
+     * Test that a table gives exact values for differences
+     * outside its range, and at its entries.
+     */
+    @Test
+    public void testRange() {
+        BallisticsFunction rate = Ballistics.exactRate();
+        TabulatedFunction table = new TabulatedFunction(rate, 0, .5, 1e-3);
+        Assertions.assertThat(table.function(0, .2)).isEqualTo(rate.function(-.2, 0));
+        Assertions.assertThat(table.function(.9, .2)).isEqualTo(rate.function(.7, 0));
+        Assertions.assertThat(table.function(.5, .25)).isEqualTo(rate.function(.25, 0));
+        Assertions.assertThat(table.function(.5, 0)).isEqualTo(rate.function(.5, 0));
+        Assertions.assertThat(table.function(Double.NaN, 0)).isNaN();
+    }
+
+    /**
+     * Test switching Ballistics between exact and tabulated
+     * functions.
+     */
+    @Test
+    public void testTableMode() {
+        try {
+            Ballistics.setTableError(1e-6);
+            Assertions.assertThat(Ballistics.rate()).isInstanceOf(TabulatedFunction.class);
+            Assertions.assertThat(Ballistics.thrust()).isSameAs(Ballistics.thrust());
+            Assertions.assertThat(maxError(Ballistics.exactThrust(), Ballistics.thrust()))
+                .isLessThanOrEqualTo(1e-6);
+        } finally {
+            Ballistics.setTableError(0);
+        }
+        Assertions.assertThat(Ballistics.rate()).isSameAs(Ballistics.exactRate());
+        Assertions.assertThat(Ballistics.thrust()).isSameAs(Ballistics.exactThrust());
+    }
+
+    /**
+     * Test that a table must have a range and a positive error.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoError() {
+        new TabulatedFunction(Ballistics.exactRate(), 0);
+    }
+
+    /**
+     * Test that a table refuses an error that would need more
+     * than MAX_INTERVALS intervals.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFine() {
+        new TabulatedFunction(Ballistics.exactThrust(), 1e-13);
+    }
+}
@@ -0,0 +1,80 @@
+package com.oozinoz.dublin;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+import com.oozinoz.machine.*;
+
+/**
+ * Test that the parallel visitors agree with the sequential
+ * ones.
+ */
+public class ParallelVisitorTest {
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    /**
+     * Test raking the Dublin factory, splitting at every
+     * composite.
+     */
+    @Test
+    public void testRakeDublin() {
+        MachineComposite dublin = OozinozFactory.dublin();
+        Assertions.assertThat(new ParallelRakeVisitor(pool, 1).getLeaves(dublin))
+            .isEqualTo(new RakeVisitor().getLeaves(dublin))
+            .hasSize(22);
+    }
+
+    /**
+     * Test raking a factory with a shared machine, and one with a
+     * cycle, which the sequential visitor could not walk.
+     */
+    @Test
+    public void testRakeShared() {
+        Assertions.assertThat(new ParallelRakeVisitor(pool, 1).getLeaves(OozinozFactory.abc()))
+            .hasSize(1);
+        MachineComposite m1 = new MachineComposite(1, null);
+        MachineComposite m2 = new MachineComposite(2, null);
+        m1.add(m2);
+        m2.add(new Fuser(3));
+        m2.add(m1);
+        Assertions.assertThat(new ParallelRakeVisitor(pool, 1).getLeaves(m1))
+            .extracting("id")
+            .containsExactly(3);
+    }
+
+    /**
+     * Test finding machines and composites.
+     */
+    @Test
+    public void testFind() {
+        MachineComposite dublin = OozinozFactory.dublin();
+        Assertions.assertThat(new ParallelFindVisitor(3404, pool, 1).find(dublin).getId())
+            .isEqualTo(3404);
+        Assertions.assertThat(new ParallelFindVisitor(2000, pool, 1).find(dublin).getName())
+            .isEqualTo("Line 2");
+        Assertions.assertThat(new ParallelFindVisitor(9999, pool, 1).find(dublin)).isNull();
+    }
+
+    /**
+     * Test raking and finding within a very deep composite that
+     * one task walks.
+     */
+    @Test
+    public void testDeep() {
+        MachineComposite root = new MachineComposite(0, null);
+        root.add(new Fuser(-1));
+        for (int i = 1; i < 50000; i++) {
+            MachineComposite parent = new MachineComposite(i, null);
+            parent.add(root);
+            root = parent;
+        }
+        Assertions.assertThat(new ParallelRakeVisitor(pool, 1000).getLeaves(root))
+            .extracting("id")
+            .containsExactly(-1);
+        Assertions.assertThat(new ParallelFindVisitor(-1, pool, 1000).find(root).getId())
+            .isEqualTo(-1);
+    }
+}
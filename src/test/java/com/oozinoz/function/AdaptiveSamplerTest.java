@@ -0,0 +1,109 @@
+package com.oozinoz.function;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+import com.oozinoz.ballistics.Ballistics;
+
+/**
+ * Test sampling curves adaptively.
+ */
+public class AdaptiveSamplerTest {
+
+    /*
+     * A burn rate whose peak, at t = .6, is much narrower than
+     * the plot.
+     */
+    private static final Function RATE = new Function(new Function[0]) {
+        public double f(double t) {
+            return Ballistics.rate().function(30 * t, 18);
+        }
+    };
+
+    /*
+     * Return how far, scaled by yScale, a polyline through the
+     * given points strays from y at many times.
+     */
+    private static double maxError(Function y, double[] ts, double[] ys, int n, double yScale) {
+        double max = 0;
+        int k = 0;
+        for (int i = 0; i <= 10000; i++) {
+            double t = i / 10000.0;
+            while (k < n - 2 && ts[k + 1] < t) {
+                k++;
+            }
+            double a = (t - ts[k]) / (ts[k + 1] - ts[k]);
+            double line = ys[k] + a * (ys[k + 1] - ys[k]);
+            max = Math.max(max, Math.abs(y.f(t) - line) * yScale);
+        }
+        return max;
+    }
+
+    /**
+     * Test that the sampler follows a narrow peak more closely
+     * than the same number of evenly spaced points, within its
+     * budget.
+     */
+    @Test
+    public void testPeak() {
+        AdaptiveSampler s = new AdaptiveSampler();
+        s.setScale(400, 400);
+        s.setMaxPoints(101);
+        s.setTolerance(0);
+        int n = s.sample(new T(), RATE);
+        Assertions.assertThat(n).isEqualTo(101);
+        Assertions.assertThat(s.getEvaluations()).isLessThanOrEqualTo(2 * 101);
+
+        double[] ts = new double[101];
+        double[] ys = new double[101];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = i / 100.0;
+        }
+        RATE.f(ts, ys);
+        double even = maxError(RATE, ts, ys, ts.length, 400);
+        double adaptive = maxError(RATE, s.getT(), s.getY(), n, 400);
+        Assertions.assertThat(adaptive).isLessThan(even / 4);
+        Assertions.assertThat(adaptive).isLessThan(2);
+    }
+
+    /**
+     * Test that the sampler stops once it meets its tolerance,
+     * and returns points in order of time from 0 to 1.
+     */
+    @Test
+    public void testTolerance() {
+        AdaptiveSampler s = new AdaptiveSampler();
+        s.setScale(200, 200);
+        s.setTolerance(.25);
+        Function y = new Sin(new Arithmetic('*', new Constant(Math.PI), new T()));
+        int n = s.sample(new T(), y);
+        Assertions.assertThat(n).isLessThan(s.getMaxPoints());
+        Assertions.assertThat(maxError(y, s.getT(), s.getY(), n, 200)).isLessThan(.5);
+        double[] t = s.getT();
+        Assertions.assertThat(t[0]).isEqualTo(0.0);
+        Assertions.assertThat(t[n - 1]).isEqualTo(1.0);
+        for (int i = 1; i < n; i++) {
+            Assertions.assertThat(t[i]).isGreaterThan(t[i - 1]);
+            Assertions.assertThat(s.getX()[i]).isEqualTo(t[i]);
+            Assertions.assertThat(s.getY()[i]).isEqualTo(y.f(t[i]));
+        }
+    }
+
+    /**
+     * Test that a straight line needs only the starting points,
+     * and that values the sampler can't draw don't use up its
+     * budget.
+     */
+    @Test
+    public void testNoRefinement() {
+        AdaptiveSampler s = new AdaptiveSampler();
+        s.setStartPoints(5);
+        s.setScale(1000, 1000);
+        Assertions.assertThat(s.sample(new T(), new Arithmetic('*', new Constant(3), new T())))
+            .isEqualTo(5);
+        Assertions.assertThat(s.sample(new T(), new Arithmetic('/', new Constant(0), new Constant(0))))
+            .isEqualTo(5);
+        Assertions.assertThat(s.getEvaluations()).isEqualTo(9);
+    }
+}
@@ -0,0 +1,125 @@
+package com.oozinoz.function;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+import com.oozinoz.ballistics.Ballistics;
+import com.oozinoz.ballistics.Tpeak;
+
+/**
+ * Test caching the values of a function.
+ */
+public class CachedFunctionTest {
+
+    /*
+     * A burn rate that counts its evaluations and reads its
+     * peak time from a Tpeak model.
+     */
+    private static class Rate extends Function {
+        Tpeak tPeak;
+        int calls = 0;
+
+        Rate(Tpeak tPeak) {
+            super(new Function[0]);
+            this.tPeak = tPeak;
+        }
+
+        public double f(double t) {
+            calls++;
+            return Ballistics.rate().function(t, tPeak.getValue());
+        }
+    }
+
+    /**
+     * Test that the cache answers repeated times, and forgets
+     * its values when the observed peak time changes.
+     */
+    @Test
+    public void testHitsAndInvalidation() {
+        Tpeak tPeak = new Tpeak(.5);
+        Rate rate = new Rate(tPeak);
+        CachedFunction f = new CachedFunction(rate);
+        tPeak.addObserver(f);
+        double[] t = new double[101];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = i / 100.0;
+        }
+        double[] out = new double[101];
+        f.f(t, out);
+        f.f(t, out);
+        Assertions.assertThat(rate.calls).isEqualTo(101);
+        Assertions.assertThat(f.getHits()).isEqualTo(101);
+        Assertions.assertThat(f.getMisses()).isEqualTo(101);
+        Assertions.assertThat(f.f(.3)).isEqualTo(Ballistics.rate().function(.3, .5));
+
+        tPeak.setValue(.2);
+        Assertions.assertThat(f.getSize()).isEqualTo(0);
+        f.f(t, out);
+        for (int i = 0; i < t.length; i++) {
+            Assertions.assertThat(out[i]).isEqualTo(Ballistics.rate().function(t[i], .2));
+        }
+        Assertions.assertThat(rate.calls).isEqualTo(202);
+    }
+
+    /**
+     * Test that a full cache evicts entries it has not used
+     * recently, and keeps one that it uses all the time.
+     */
+    @Test
+    public void testEviction() {
+        Rate rate = new Rate(new Tpeak(.5));
+        CachedFunction f = new CachedFunction(rate, 8);
+        f.f(0);
+        for (int i = 1; i <= 100; i++) {
+            Assertions.assertThat(f.f(i / 100.0)).isEqualTo(rate.f(i / 100.0));
+            f.f(0);
+        }
+        Assertions.assertThat(f.getSize()).isEqualTo(8);
+        Assertions.assertThat(f.getEvictions()).isEqualTo(93);
+        Assertions.assertThat(f.getHits()).isEqualTo(100);
+    }
+
+    /**
+     * Test that evicting entries keeps every remaining entry
+     * where a lookup will find it, and that the cache always
+     * gives the wrapped function's values.
+     */
+    @Test
+    public void testRandomUse() {
+        Random r = new Random(11);
+        Function g = CompiledFunctionTest.random(r, 4);
+        CachedFunction f = new CachedFunction(g, 16);
+        for (int i = 0; i < 20000; i++) {
+            double t = r.nextInt(40) / 39.0;
+            Assertions.assertThat(f.f(t)).isEqualTo(g.f(t));
+            if (i % 1000 == 0) {
+                f.f(new double[] {t, 0, t, .5}, new double[4]);
+            }
+        }
+        int n = 0;
+        for (int i = 0; i < f.keys.length; i++) {
+            if (f.keys[i] != CachedFunction.EMPTY) {
+                n++;
+                Assertions.assertThat(f.find(f.keys[i])).isEqualTo(i);
+            }
+        }
+        Assertions.assertThat(n).isEqualTo(f.getSize()).isLessThanOrEqualTo(16);
+        Assertions.assertThat(f.getHits() + f.getMisses()).isEqualTo(20000 + 20 * 4);
+    }
+
+    /**
+     * Test that a quantum makes nearby times share a value.
+     */
+    @Test
+    public void testQuantum() {
+        Rate rate = new Rate(new Tpeak(.5));
+        CachedFunction f = new CachedFunction(rate);
+        f.setQuantum(.01);
+        Assertions.assertThat(f.f(.301)).isEqualTo(f.f(.299));
+        Assertions.assertThat(f.f(.3)).isEqualTo(rate.f(30 * .01));
+        Assertions.assertThat(f.getMisses()).isEqualTo(1);
+    }
+}
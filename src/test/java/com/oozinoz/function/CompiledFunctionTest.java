@@ -0,0 +1,120 @@
+package com.oozinoz.function;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test that compiled functions give the values that the
+ * functions they compile give.
+ */
+public class CompiledFunctionTest {
+
+    /**
+     * Return a random function tree of the given depth.
+     */
+    public static Function random(Random r, int depth) {
+        if (depth == 0) {
+            switch (r.nextInt(3)) {
+                case 0 :
+                    return new T();
+                case 1 :
+                    return new Constant(r.nextInt(5) - 2);
+                default :
+                    return new Constant(r.nextGaussian());
+            }
+        }
+        switch (r.nextInt(7)) {
+            case 0 :
+                return new Sin(random(r, depth - 1));
+            case 1 :
+                return new Cos(random(r, depth - 1));
+            case 2 :
+                return new Exp(random(r, depth - 1));
+            case 3 :
+                return new Sqrt(random(r, depth - 1));
+            case 4 :
+                return new Abs(random(r, depth - 1));
+            case 5 :
+                return new Scale(
+                    random(r, depth - 1), random(r, depth - 1), random(r, depth - 1),
+                    random(r, depth - 1), random(r, depth - 1));
+            default :
+                return new Arithmetic(
+                    "+-*/".charAt(r.nextInt(4)), random(r, depth - 1), random(r, depth - 1));
+        }
+    }
+
+    private static void assertSame(Function f, Function compiled) {
+        for (int i = 0; i <= 100; i++) {
+            double t = i / 100.0;
+            Assertions.assertThat(Double.doubleToLongBits(compiled.f(t)))
+                .as("%s at %s", f, t)
+                .isEqualTo(Double.doubleToLongBits(f.f(t)));
+        }
+    }
+
+    /**
+     * Test random trees, including ones that divide by zero and
+     * take square roots of negative numbers.
+     */
+    @Test
+    public void testRandomTrees() {
+        Random r = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            Function f = random(r, 1 + r.nextInt(5));
+            assertSame(f, new CompiledFunction(f));
+        }
+    }
+
+    /**
+     * Test a scale whose "a" range is empty, an unknown
+     * operator, and a function the compiler does not know.
+     */
+    @Test
+    public void testSpecialCases() {
+        assertSame(new Scale(new Constant(2), new T(), new Constant(2), new Constant(1), new Constant(4)),
+            new CompiledFunction(new Scale(new Constant(2), new T(), new Constant(2), new Constant(1), new Constant(4))));
+        Function odd = new Arithmetic('%', new T(), new Constant(3));
+        assertSame(odd, new CompiledFunction(odd));
+        Function square = new Sin(new T()) {
+            public double f(double t) {
+                return t * t;
+            }
+        };
+        Function f = new Arithmetic('+', square, new Cos(square));
+        assertSame(f, new CompiledFunction(f));
+    }
+
+    /**
+     * Test that a small tree compiles into a single class.
+     */
+    @Test
+    public void testOneClass() {
+        Function f = new Arithmetic('*', new Sin(new T()), new Scale(-1, 1));
+        CompiledFunction c = new CompiledFunction(f);
+        Assertions.assertThat(c.getClassCount()).isEqualTo(1);
+        assertSame(f, c);
+    }
+
+    /**
+     * Test compiling a very deep chain, which must compile into
+     * several classes.
+     */
+    @Test
+    public void testDeepChain() {
+        Function f = new T();
+        for (int i = 0; i < 100000; i++) {
+            f = new Arithmetic(i % 2 == 0 ? '+' : '*', f, new Constant(0.999));
+        }
+        CompiledFunction c = new CompiledFunction(f);
+        Assertions.assertThat(c.getClassCount()).isGreaterThan(1);
+        double x = 0.5;
+        for (int i = 0; i < 100000; i++) {
+            x = i % 2 == 0 ? x + 0.999 : x * 0.999;
+        }
+        Assertions.assertThat(c.f(0.5)).isEqualTo(x);
+    }
+}
@@ -0,0 +1,93 @@
+package com.oozinoz.function;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test evaluating functions at many times at once.
+ */
+public class FunctionTest {
+
+    private static void assertBatchMatches(Function f, double[] t) {
+        double[] out = new double[t.length + 3];
+        f.f(t, out);
+        for (int i = 0; i < t.length; i++) {
+            Assertions.assertThat(Double.doubleToLongBits(out[i]))
+                .as("%s at %s", f, t[i])
+                .isEqualTo(Double.doubleToLongBits(f.f(t[i])));
+        }
+    }
+
+    /**
+     * Test that batch evaluation gives what evaluating one time
+     * at a time gives, for random trees, arrays of various
+     * lengths, and functions that only define f(double).
+     */
+    @Test
+    public void testBatch() {
+        Random r = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            Function f = CompiledFunctionTest.random(r, 1 + r.nextInt(5));
+            double[] t = new double[r.nextInt(120)];
+            for (int j = 0; j < t.length; j++) {
+                t[j] = r.nextDouble();
+            }
+            assertBatchMatches(f, t);
+            assertBatchMatches(new CompiledFunction(f), t);
+        }
+        Function square = new Function(new Function[0]) {
+            public double f(double t) {
+                return t * t;
+            }
+        };
+        assertBatchMatches(new Arithmetic('-', new Sin(square), new Arithmetic('%', square, square)),
+            new double[] {0, 0.25, 0.5, 1});
+    }
+
+    /**
+     * Test that a source shared within a tree evaluates
+     * correctly in a batch.
+     */
+    @Test
+    public void testSharedSource() {
+        Function ft = new Arithmetic('-', new T(), new Constant(.5));
+        Function y = new Arithmetic('-', new Constant(1),
+            new Arithmetic('*', new Constant(4), new Arithmetic('*', ft, ft)));
+        assertBatchMatches(y, new double[] {0, 0.1, 0.5, 0.9, 1});
+    }
+
+    /**
+     * Test that a thread reuses the arrays it releases, by size,
+     * and keeps only a few of each size.
+     */
+    @Test
+    public void testScratch() {
+        double[] d = Function.borrow(100);
+        Assertions.assertThat(d).hasSize(128);
+        Function.release(d);
+        Assertions.assertThat(Function.borrow(70)).isSameAs(d);
+        double[][] many = new double[Function.MAX_FREE + 5][];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = Function.borrow(1000);
+        }
+        for (int i = 0; i < many.length; i++) {
+            Function.release(many[i]);
+        }
+        java.util.Set<double[]> reused = java.util.Collections.newSetFromMap(
+            new java.util.IdentityHashMap<double[], Boolean>());
+        for (int i = 0; i < many.length; i++) {
+            reused.add(Function.borrow(1000));
+        }
+        int kept = 0;
+        for (int i = 0; i < many.length; i++) {
+            if (reused.contains(many[i])) {
+                kept++;
+            }
+        }
+        Assertions.assertThat(kept).isEqualTo(Function.MAX_FREE);
+        Assertions.assertThat(Function.borrow(0)).isNotNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.oozinoz.function;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test simplifying function trees.
+ */
+public class SimplifierTest {
+
+    private static void assertClose(Function f, Function g) {
+        for (int i = 0; i <= 100; i++) {
+            double t = i / 100.0;
+            double a = f.f(t);
+            double b = g.f(t);
+            if (Double.isNaN(a)) {
+                Assertions.assertThat(b).as("%s at %s", f, t).isNaN();
+            } else if (Double.isInfinite(a)) {
+                Assertions.assertThat(b).as("%s at %s", f, t).isEqualTo(a);
+            } else {
+                Assertions.assertThat(b).as("%s at %s", f, t)
+                    .isCloseTo(a, Assertions.within(1e-9 * Math.max(1, Math.abs(a))));
+            }
+        }
+    }
+
+    /**
+     * Test folding constants and removing identities.
+     */
+    @Test
+    public void testFolding() {
+        Simplifier s = new Simplifier();
+        Function f = new Arithmetic('*', new Constant(1),
+            new Arithmetic('+', new Sin(new T()),
+                new Arithmetic('-', new Constant(3), new Constant(3))));
+        Function g = s.simplify(f);
+        Assertions.assertThat(g).isEqualTo(new Sin(new T()));
+        Assertions.assertThat(s.getRemoved()).isEqualTo(Simplifier.countNodes(f) - 2);
+        Assertions.assertThat(new Simplifier().simplify(new Abs(new Abs(new T()))))
+            .isEqualTo(new Abs(new T()));
+        Assertions.assertThat(new Simplifier().simplify(new Sqrt(new Constant(4))))
+            .isEqualTo(new Constant(2));
+    }
+
+    /**
+     * Test sharing equal subtrees.
+     */
+    @Test
+    public void testSharing() {
+        Function f = new Arithmetic('*',
+            new Arithmetic('-', new T(), new Constant(.5)),
+            new Arithmetic('-', new T(), new Constant(.5)));
+        Simplifier s = new Simplifier();
+        Function g = s.simplify(f);
+        Assertions.assertThat(g.source[0]).isSameAs(g.source[1]);
+        Assertions.assertThat(Simplifier.countNodes(g)).isEqualTo(4);
+        Assertions.assertThat(s.getRemoved()).isEqualTo(3);
+        assertClose(f, g);
+    }
+
+    /**
+     * Test merging a scale of a scale.
+     */
+    @Test
+    public void testMergeScales() {
+        Function f = new Scale(new Constant(0), new Scale(new Constant(-1), new Sin(new T()),
+            new Constant(1), new Constant(10), new Constant(20)), new Constant(100),
+            new Constant(32), new Constant(212));
+        Function g = new Simplifier().simplify(f);
+        Assertions.assertThat(g.source[1]).isEqualTo(new Sin(new T()));
+        assertClose(f, g);
+    }
+
+    /**
+     * Test that simplified random trees keep their values, and
+     * that functions the simplifier does not know stay put.
+     */
+    @Test
+    public void testRandomTrees() {
+        Random r = new Random(17);
+        for (int i = 0; i < 300; i++) {
+            Function f = CompiledFunctionTest.random(r, 1 + r.nextInt(5));
+            Simplifier s = new Simplifier();
+            Function g = s.simplify(f);
+            Assertions.assertThat(Simplifier.countNodes(g)).isLessThanOrEqualTo(Simplifier.countNodes(f));
+            assertClose(f, g);
+        }
+        final double[] value = {2};
+        Function changing = new Constant(0) {
+            public double f(double t) {
+                return value[0];
+            }
+        };
+        Function g = new Simplifier().simplify(new Arithmetic('+', changing, new Constant(1)));
+        value[0] = 5;
+        Assertions.assertThat(g.f(0)).isEqualTo(6);
+    }
+
+    /**
+     * Test the equality that sharing relies on.
+     */
+    @Test
+    public void testEquals() {
+        Assertions.assertThat(new Constant(1)).isNotEqualTo(new Constant(2));
+        Assertions.assertThat(new Constant(1)).isEqualTo(new Constant(1)).hasSameHashCodeAs(new Constant(1));
+        Assertions.assertThat(new Arithmetic('+', new T(), new T()))
+            .isNotEqualTo(new Arithmetic('*', new T(), new T()));
+        Assertions.assertThat(new Arithmetic('+', new T(), new T()))
+            .isEqualTo(new Arithmetic('+', new T(), new T()))
+            .hasSameHashCodeAs(new Arithmetic('+', new T(), new T()));
+        Assertions.assertThat(new T()).isNotEqualTo(null);
+    }
+}
@@ -0,0 +1,94 @@
+package com.oozinoz.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test compressing and decompressing with compression stages.
+ */
+public class CompressionStageTest {
+
+    private static byte[] data() {
+        Random r = new Random(3);
+        byte[] data = new byte[200000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (r.nextInt(8) == 0 ? ' ' : 'a' + r.nextInt(6));
+        }
+        return data;
+    }
+
+    /**
+     * Test that gzip and zlib output, written serially or in
+     * parallel, decompresses to the original bytes with both the
+     * stage and the standard library streams.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] data = data();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int mode = 0; mode < 4; mode++) {
+                boolean gzip = mode % 2 == 0;
+                CompressionStage stage = new CompressionStage();
+                stage.setGzip(gzip);
+                stage.setLevel(mode + 1);
+                stage.setBufferSize(1000);
+                if (mode >= 2) {
+                    stage.setParallel(pool, 7000);
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                OutputStream out = stage.compress(bytes);
+                out.write(data, 0, 12345);
+                out.flush();
+                out.write(data[12345]);
+                out.write(data, 12346, data.length - 12346);
+                out.close();
+                byte[] packed = bytes.toByteArray();
+                Assertions.assertThat(packed.length).isLessThan(data.length);
+                Assertions.assertThat(readAll(stage.decompress(new ByteArrayInputStream(packed))))
+                    .isEqualTo(data);
+                InputStream standard = gzip
+                    ? new GZIPInputStream(new ByteArrayInputStream(packed))
+                    : new InflaterInputStream(new ByteArrayInputStream(packed));
+                Assertions.assertThat(readAll(standard)).isEqualTo(data);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test that an empty parallel stream is valid.
+     */
+    @Test
+    public void testEmpty() throws IOException {
+        CompressionStage stage = new CompressionStage();
+        stage.setParallel(true);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stage.compress(bytes).close();
+        Assertions.assertThat(readAll(new GZIPInputStream(
+            new ByteArrayInputStream(bytes.toByteArray())))).isEmpty();
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+}
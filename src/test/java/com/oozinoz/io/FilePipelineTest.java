@@ -0,0 +1,87 @@
+package com.oozinoz.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test running filter chains over files.
+ */
+public class FilePipelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final FilterChain TITLE_WRAP = new FilterChain() {
+        public Writer wrap(Writer out) {
+            return new WrapFilter(new BufferedWriter(new TitleCaseFilter(out)), 30);
+        }
+    };
+
+    /**
+     * Test that a pipeline writes what the same chain of writers
+     * writes, even with tiny chunks and maps that split
+     * multi-byte characters.
+     */
+    @Test
+    public void testMatchesWriterChain() throws IOException {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            b.append("caf\u00e9 cr\u00e8me br\u00fbl\u00e9e \u20ac").append(i).append(i % 7 == 0 ? "\n" : " ");
+        }
+        String text = b.toString();
+        StringWriter expected = new StringWriter();
+        Writer w = TITLE_WRAP.wrap(expected);
+        w.write(text);
+        w.close();
+
+        File in = folder.newFile("in.txt");
+        Files.write(in.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        check(new FilePipeline(TITLE_WRAP, StandardCharsets.UTF_8, 5, 17), in, expected.toString());
+        check(new FilePipeline(TITLE_WRAP, StandardCharsets.UTF_8, 4096, 1 << 20), in, expected.toString());
+    }
+
+    /**
+     * Test that an empty file filters to an empty file.
+     */
+    @Test
+    public void testEmpty() throws IOException {
+        File in = folder.newFile("empty.txt");
+        check(new FilePipeline(TITLE_WRAP, StandardCharsets.UTF_8, 64, 64), in, "");
+    }
+
+    /**
+     * Test that a pipeline with a compression stage writes a
+     * gzip file of the filtered text.
+     */
+    @Test
+    public void testCompressed() throws IOException {
+        File in = folder.newFile("plain.txt");
+        Files.write(in.toPath(), "the mad rocket flies over the fair".getBytes(StandardCharsets.UTF_8));
+        File out = folder.newFile("plain.txt.gz");
+        FilePipeline p = new FilePipeline(TITLE_WRAP, StandardCharsets.UTF_8, 64, 64);
+        p.setCompression(new CompressionStage());
+        p.run(in, out);
+        byte[] text = CompressionStageTest.readAll(new GZIPInputStream(Files.newInputStream(out.toPath())));
+        Assertions.assertThat(new String(text, StandardCharsets.UTF_8))
+            .isEqualTo("The Mad Rocket Flies Over The" + System.lineSeparator() + "Fair");
+    }
+
+    private void check(FilePipeline p, File in, String expected) throws IOException {
+        File out = folder.newFile();
+        p.run(in, out);
+        Assertions.assertThat(new String(Files.readAllBytes(out.toPath()), StandardCharsets.UTF_8))
+            .isEqualTo(expected);
+    }
+}
@@ -0,0 +1,158 @@
+package com.oozinoz.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test the case-changing filters.
+ */
+public class FilterTest {
+
+    private static final String TEXT =
+        "the \"mad\" ROCKET\tflies  over\nthe Fair";
+
+    /**
+     * Test that a chain of filters changes case a block at a time.
+     */
+    @Test
+    public void testChain() throws IOException {
+        StringWriter s = new StringWriter();
+        Writer out = new TitleCaseFilter(new LowerCaseFilter(s));
+        out.write(TEXT);
+        out.flush();
+        Assertions.assertThat(s.toString()).isEqualTo(TEXT.toLowerCase());
+
+        s = new StringWriter();
+        out = new UpperCaseFilter(new TitleCaseFilter(s));
+        out.write(TEXT);
+        out.flush();
+        Assertions.assertThat(s.toString())
+            .isEqualTo("The \"Mad\" Rocket\tFlies  Over\nThe Fair");
+    }
+
+    /**
+     * Test that title casing carries across writes, and that
+     * block writes match writes of single characters.
+     */
+    @Test
+    public void testTitleCaseAcrossWrites() throws IOException {
+        StringWriter blocks = new StringWriter();
+        Writer out = new TitleCaseFilter(blocks);
+        for (int i = 0; i < TEXT.length(); i += 3) {
+            out.write(TEXT, i, Math.min(3, TEXT.length() - i));
+        }
+        StringWriter chars = new StringWriter();
+        Writer out2 = new TitleCaseFilter(chars);
+        for (int i = 0; i < TEXT.length(); i++) {
+            out2.write(TEXT.charAt(i));
+        }
+        Assertions.assertThat(blocks.toString()).isEqualTo(chars.toString());
+    }
+
+    /**
+     * Test that a filter does not change the caller's array, and
+     * handles writes longer than its buffer.
+     */
+    @Test
+    public void testLongArray() throws IOException {
+        char[] text = new char[OozinozFilter.BUFFER_SIZE * 2 + 7];
+        java.util.Arrays.fill(text, 'a');
+        StringWriter s = new StringWriter();
+        Writer out = new UpperCaseFilter(s);
+        out.write(text);
+        Assertions.assertThat(text[0]).isEqualTo('a');
+        Assertions.assertThat(s.toString()).hasSize(text.length).doesNotContain("a");
+    }
+
+    /**
+     * Test that a filter that only writes single characters
+     * still works beneath a block filter.
+     */
+    @Test
+    public void testCharFilter() throws IOException {
+        StringWriter s = new StringWriter();
+        Writer out = new UpperCaseFilter(new OozinozFilter(s) {
+            public void write(int c) throws IOException {
+                out.write(c == ' ' ? '_' : c);
+            }
+        });
+        out.write("a b c");
+        Assertions.assertThat(s.toString()).isEqualTo("A_B_C");
+    }
+
+    /**
+     * Test wrapping, centering and justifying text.
+     */
+    @Test
+    public void testWrap() throws IOException {
+        String text = "The quick brown fox jumps over the lazy dog and keeps on running far away";
+        String nl = System.lineSeparator();
+        Assertions.assertThat(wrap(text, false, false)).isEqualTo(
+            "The quick brown fox" + nl + "jumps over the lazy" + nl
+                + "dog and keeps on" + nl + "running far away");
+        Assertions.assertThat(wrap(text, true, false)).startsWith(
+            "The quick brown fox" + nl + "jumps over the lazy" + nl
+                + "  dog and keeps on" + nl);
+        Assertions.assertThat(wrap(text, false, true)).isEqualTo(
+            "The  quick brown fox" + nl + "jumps  over the lazy" + nl
+                + "dog   and  keeps  on" + nl + "running far away");
+    }
+
+    /**
+     * Test that converting in parallel gives what converting in
+     * one thread gives, including title casing across chunks
+     * and across writes.
+     */
+    @Test
+    public void testParallel() throws IOException {
+        Random r = new Random(7);
+        char[] text = new char[300000];
+        for (int i = 0; i < text.length; i++) {
+            int k = r.nextInt(40);
+            text[i] = k == 0 ? ' ' : k == 1 ? '\n' : k == 2 ? '"' : (char) ('a' + k % 26);
+        }
+        // a long word that a chunk boundary must fall within
+        java.util.Arrays.fill(text, 100000, 150000, 'x');
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int kind = 0; kind < 3; kind++) {
+                StringWriter serial = new StringWriter();
+                StringWriter parallel = new StringWriter();
+                CaseFilter f1 = caseFilter(kind, serial);
+                CaseFilter f2 = caseFilter(kind, parallel);
+                f2.setParallel(pool, 1000);
+                f1.write(text, 0, 12345);
+                f1.write(text, 12345, text.length - 12345);
+                f2.write(text, 0, 12345);
+                f2.write(text, 12345, text.length - 12345);
+                Assertions.assertThat(parallel.toString()).isEqualTo(serial.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static CaseFilter caseFilter(int kind, Writer out) {
+        return kind == 0
+            ? new UpperCaseFilter(out)
+            : kind == 1 ? new LowerCaseFilter(out) : new TitleCaseFilter(out);
+    }
+
+    private static String wrap(String text, boolean center, boolean justify) throws IOException {
+        StringWriter s = new StringWriter();
+        WrapFilter out = new WrapFilter(new BufferedWriter(s), 20);
+        out.setCenter(center);
+        out.setJustify(justify);
+        out.write(text);
+        out.close();
+        return s.toString();
+    }
+}
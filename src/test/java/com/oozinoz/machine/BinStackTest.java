@@ -0,0 +1,71 @@
+package com.oozinoz.machine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test the bounded bin stack.
+ */
+public class BinStackTest {
+
+    /**
+     * Test that the stack is last-in, first-out and respects its
+     * limit without waiting.
+     */
+    @Test
+    public void testLimit() throws InterruptedException {
+        BinStack s = new BinStack(2);
+        Bin a = new Bin("a");
+        Bin b = new Bin("b");
+        Assertions.assertThat(s.tryPush(a)).isTrue();
+        Assertions.assertThat(s.tryPush(b)).isTrue();
+        Assertions.assertThat(s.tryPush(new Bin("c"))).isFalse();
+        Assertions.assertThat(s.offer(new Bin("c"), 10, TimeUnit.MILLISECONDS)).isFalse();
+        Assertions.assertThat(s.size()).isEqualTo(2);
+        Assertions.assertThat(s.pop()).isSameAs(b);
+        Assertions.assertThat(s.tryPop()).isSameAs(a);
+        Assertions.assertThat(s.tryPop()).isNull();
+        Assertions.assertThat(s.poll(10, TimeUnit.MILLISECONDS)).isNull();
+        Assertions.assertThat(s.size()).isZero();
+    }
+
+    /**
+     * Test that loaders and unloaders on several threads move every
+     * bin exactly once and never overfill the stack.
+     */
+    @Test
+    public void testThreads() throws InterruptedException {
+        final BinStack s = new BinStack(3);
+        final int perThread = 20000;
+        final AtomicInteger popped = new AtomicInteger();
+        final AtomicInteger tooHigh = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final boolean loader = i % 2 == 0;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    if (loader) {
+                        s.push(new Bin("b"));
+                    } else {
+                        s.pop();
+                        popped.incrementAndGet();
+                    }
+                    if (s.size() > s.getLimit()) {
+                        tooHigh.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assertions.assertThat(popped.get()).isEqualTo(perThread * threads.length / 2);
+        Assertions.assertThat(tooHigh.get()).isZero();
+        Assertions.assertThat(s.size()).isZero();
+    }
+}
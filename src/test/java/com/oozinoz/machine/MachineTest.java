@@ -111,4 +111,302 @@ public class MachineTest {
     public void testTree() {
         Assertions.assertThat(tree().isTree()).isTrue();
     }
+
+    /**
+     * Test that machine counts match the plants they describe.
+     */
+    @Test
+    public void testMachineCount() {
+        Assertions.assertThat(OozinozFactory.dublin().getMachineCount()).isEqualTo(22);
+        Assertions.assertThat(tree().getMachineCount()).isEqualTo(3);
+        Assertions.assertThat(new Fuser(1).getMachineCount()).isEqualTo(1);
+    }
+
+    /**
+     * Test that a machine shared by two composites counts once
+     * for each path to it, as walking the tree would count it.
+     */
+    @Test
+    public void testSharedMachineCount() {
+        Assertions.assertThat(OozinozFactory.abc().getMachineCount()).isEqualTo(2);
+        Assertions.assertThat(OozinozFactory.plant().getMachineCount()).isEqualTo(4);
+    }
+
+    /**
+     * Test that adding to a nested composite updates the counts of
+     * every composite above it.
+     */
+    @Test
+    public void testMachineCountAfterAdd() {
+        MachineComposite m123 = tree();
+        MachineComposite m23 = (MachineComposite) m123.getComponents().get(1);
+        m23.add(new Fuser(4));
+        m23.add(new Machine[] { new Fuser(5), new Fuser(6) });
+        Assertions.assertThat(m23.getMachineCount()).isEqualTo(5);
+        Assertions.assertThat(m123.getMachineCount()).isEqualTo(6);
+    }
+
+    /**
+     * Test that closing a cycle around machines terminates.
+     */
+    @Test
+    public void testCycleMachineCount() {
+        MachineComposite m1 = new MachineComposite(1);
+        MachineComposite m2 = new MachineComposite(2);
+        m1.add(m2);
+        m2.add(new Fuser(3));
+        m2.add(m1);
+        Assertions.assertThat(m1.getMachineCount()).isEqualTo(2);
+        Assertions.assertThat(m2.getMachineCount()).isEqualTo(2);
+    }
+
+    /**
+     * Test that a machine reached along two paths counts twice,
+     * and once more for a composite that holds it twice.
+     */
+    @Test
+    public void testDiamondMachineCount() {
+        MachineComposite top = new MachineComposite(1);
+        MachineComposite left = new MachineComposite(2);
+        MachineComposite right = new MachineComposite(3);
+        MachineComposite bottom = new MachineComposite(4);
+        top.add(left);
+        top.add(right);
+        left.add(bottom);
+        right.add(bottom);
+        right.add(bottom);
+        bottom.add(new Fuser(5));
+        Assertions.assertThat(bottom.getMachineCount()).isEqualTo(1);
+        Assertions.assertThat(left.getMachineCount()).isEqualTo(1);
+        Assertions.assertThat(right.getMachineCount()).isEqualTo(2);
+        Assertions.assertThat(top.getMachineCount()).isEqualTo(3);
+    }
+
+    /**
+     * Test that adding a machine at the bottom of a very deep
+     * chain updates every count without overflowing the stack.
+     */
+    @Test
+    public void testDeepMachineCount() {
+        MachineComposite leaf = new MachineComposite(0);
+        leaf.add(new Fuser(-1));
+        MachineComposite root = leaf;
+        for (int i = 1; i < 50000; i++) {
+            MachineComposite parent = new MachineComposite(i);
+            parent.add(root);
+            root = parent;
+        }
+        leaf.add(new Fuser(-2));
+        Assertions.assertThat(root.getMachineCount()).isEqualTo(2);
+    }
+
+    /**
+     * Test looking up components by id, from the root and from
+     * a composite beneath it.
+     */
+    @Test
+    public void testLookup() {
+        MachineComposite dublin = OozinozFactory.dublin();
+        Assertions.assertThat(dublin.lookup(3404).getId()).isEqualTo(3404);
+        Assertions.assertThat(dublin.lookup(2000).getName()).isEqualTo("Line 2");
+        Assertions.assertThat(dublin.lookup(9999)).isNull();
+        MachineComposite line1 = (MachineComposite) dublin.lookup(1000);
+        Assertions.assertThat(line1.lookup(1401).getId()).isEqualTo(1401);
+        Assertions.assertThat(line1.lookup(3404)).isNull();
+    }
+
+    /**
+     * Test that lookups see components added after a composite
+     * joins a larger one, and see shared components.
+     */
+    @Test
+    public void testLookupAfterAdd() {
+        MachineComposite m123 = tree();
+        MachineComposite m23 = (MachineComposite) m123.lookup(23);
+        m23.add(new Fuser(4));
+        Assertions.assertThat(m123.lookup(4).getId()).isEqualTo(4);
+        Assertions.assertThat(m23.lookup(4).getId()).isEqualTo(4);
+        Assertions.assertThat(m23.lookup(1)).isNull();
+        MachineComposite abc = OozinozFactory.abc();
+        Assertions.assertThat(abc.lookup(102).getId()).isEqualTo(102);
+        Assertions.assertThat(((MachineComposite) abc.lookup(101)).lookup(102).getId()).isEqualTo(102);
+        Assertions.assertThat(((MachineComposite) cycle()).lookup(3).getId()).isEqualTo(3);
+    }
+
+    /**
+     * Test that lookups see components added beneath a composite
+     * after a composite above it joins a second plant, and after
+     * a plant joins a larger one.
+     */
+    @Test
+    public void testLookupAfterTopsChange() {
+        MachineComposite t = new MachineComposite(1);
+        MachineComposite p = new MachineComposite(2);
+        MachineComposite x = new MachineComposite(3);
+        t.add(p);
+        p.add(x);
+        x.add(new Fuser(4));
+        MachineComposite r = new MachineComposite(5);
+        r.add(p);
+        x.add(new Fuser(6));
+        Assertions.assertThat(t.lookup(6).getId()).isEqualTo(6);
+        Assertions.assertThat(r.lookup(6).getId()).isEqualTo(6);
+        MachineComposite u = new MachineComposite(7);
+        u.add(t);
+        x.add(new Fuser(8));
+        Assertions.assertThat(u.lookup(8).getId()).isEqualTo(8);
+        Assertions.assertThat(r.lookup(8).getId()).isEqualTo(8);
+        Assertions.assertThat(x.lookup(8).getId()).isEqualTo(8);
+        Assertions.assertThat(x.lookup(2)).isNull();
+    }
+
+    /**
+     * Test that lookups still see everything reachable after an
+     * add closes a cycle beneath another top, and after later
+     * adds inside that cycle.
+     */
+    @Test
+    public void testLookupAfterCycle() {
+        MachineComposite[] m = new MachineComposite[14];
+        for (int i = 0; i < m.length; i++) {
+            m[i] = new MachineComposite(i);
+        }
+        m[7].add(m[13]);
+        m[4].add(m[2]);
+        m[9].add(m[4]);
+        m[13].add(m[4]);
+        m[2].add(m[7]);
+        m[13].add(m[10]);
+        Assertions.assertThat(m[9].lookup(10)).isSameAs(m[10]);
+        Assertions.assertThat(m[4].lookup(10)).isSameAs(m[10]);
+        Assertions.assertThat(m[7].lookup(10)).isSameAs(m[10]);
+        Assertions.assertThat(m[9].lookup(13)).isSameAs(m[13]);
+        Assertions.assertThat(m[10].lookup(9)).isNull();
+    }
+
+    /**
+     * Test that a composite's own components win lookups over
+     * components with the same id in a larger child it adopts.
+     */
+    @Test
+    public void testLookupPrefersOwnComponents() {
+        MachineComposite p = new MachineComposite(1);
+        Machine mine = new Fuser(5);
+        p.add(mine);
+        MachineComposite c = new MachineComposite(2);
+        c.add(new Machine[] { new Fuser(5), new Fuser(6), new Fuser(7) });
+        p.add(c);
+        Assertions.assertThat(p.lookup(5)).isSameAs(mine);
+        Assertions.assertThat(p.lookup(7).getId()).isEqualTo(7);
+        Assertions.assertThat(p.lookup(2)).isSameAs(c);
+    }
+
+    /**
+     * Test building a deep chain from the top down, adding a
+     * machine at each level.
+     */
+    @Test
+    public void testDeepTopDown() {
+        MachineComposite root = new MachineComposite(0);
+        MachineComposite c = root;
+        for (int i = 1; i < 3000; i++) {
+            MachineComposite d = new MachineComposite(i);
+            c.add(d);
+            d.add(new Fuser(-i));
+            c = d;
+        }
+        Assertions.assertThat(root.getMachineCount()).isEqualTo(2999);
+        Assertions.assertThat(root.lookup(-2999).getId()).isEqualTo(-2999);
+        Assertions.assertThat(c.lookup(-2999).getId()).isEqualTo(-2999);
+        Assertions.assertThat(c.lookup(-1)).isNull();
+    }
+
+    /**
+     * Test that iterating over a shared machine returns it once,
+     * and that a tree iterator returns what a checking iterator
+     * returns, at the same depths.
+     */
+    @Test
+    public void testIterators() {
+        Assertions.assertThat(names(OozinozFactory.abc().iterator()))
+            .containsExactly(" Factory Abc@0", "Mixer102@1", "MachineComposite101@1");
+        Assertions.assertThat(names(OozinozFactory.dublin().treeIterator()))
+            .isEqualTo(names(OozinozFactory.dublin().iterator()))
+            .contains("Line 2@1", "Fuser2101@2")
+            .hasSize(26);
+    }
+
+    /**
+     * Test that a non-tree reports the node it reaches twice,
+     * and that a tree reports none.
+     */
+    @Test
+    public void testTreeBreaker() {
+        MachineComponent cycle = cycle();
+        Assertions.assertThat(cycle.getTreeBreaker()).isSameAs(cycle);
+        Assertions.assertThat(nonTree().getTreeBreaker().getId()).isEqualTo(2);
+        Assertions.assertThat(tree().getTreeBreaker()).isNull();
+        Assertions.assertThat(new Fuser(1).getTreeBreaker()).isNull();
+    }
+
+    /**
+     * Test that two components with the same id make a composite
+     * a non-tree, just as they make its iterator return one of
+     * them.
+     */
+    @Test
+    public void testSameIdNotTree() {
+        MachineComposite m = new MachineComposite(1);
+        Machine first = new Fuser(2);
+        m.add(first);
+        m.add(new Fuser(2));
+        Assertions.assertThat(m.isTree()).isFalse();
+        Assertions.assertThat(m.getTreeBreaker().getId()).isEqualTo(2);
+        Assertions.assertThat(m.getTreeBreaker()).isNotSameAs(first);
+        Assertions.assertThat(names(m.iterator())).containsExactly("MachineComposite1@0", "Fuser2@1");
+    }
+
+    /**
+     * Test that adding a shared machine below a tree's root
+     * makes the root forget that it is a tree.
+     */
+    @Test
+    public void testTreeAfterAdd() {
+        MachineComposite m123 = tree();
+        MachineComposite m23 = (MachineComposite) m123.getComponents().get(1);
+        Machine m1 = (Machine) m123.getComponents().get(0);
+        Assertions.assertThat(m123.isTree()).isTrue();
+        Assertions.assertThat(m23.isTree()).isTrue();
+        m23.add(m1);
+        Assertions.assertThat(m23.isTree()).isTrue();
+        Assertions.assertThat(m123.isTree()).isFalse();
+        Assertions.assertThat(m123.getTreeBreaker()).isSameAs(m1);
+    }
+
+    /**
+     * Test that checking a very deep chain does not overflow
+     * the stack.
+     */
+    @Test
+    public void testDeepTree() {
+        MachineComposite leaf = new MachineComposite(0);
+        MachineComposite root = leaf;
+        for (int i = 1; i < 10000; i++) {
+            MachineComposite parent = new MachineComposite(i);
+            parent.add(root);
+            root = parent;
+        }
+        Assertions.assertThat(root.isTree()).isTrue();
+        leaf.add(root);
+        Assertions.assertThat(root.isTree()).isFalse();
+    }
+
+    private static java.util.List<String> names(com.oozinoz.util.ComponentIterator i) {
+        java.util.List<String> names = new java.util.ArrayList<>();
+        while (i.hasNext()) {
+            int depth = i.depth();
+            names.add(i.next() + "@" + depth);
+        }
+        return names;
+    }
 }
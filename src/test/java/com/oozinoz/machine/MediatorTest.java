@@ -8,6 +8,7 @@ import org.assertj.core.api.Assertions;
 import com.oozinoz.chemical.Tub;
 
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 /**
@@ -85,4 +86,71 @@ public class MediatorTest {
         s.add(t20308);
         Assertions.assertThat(sp_2402.getTubs()).isEqualTo(s);
     }
+
+    /**
+     * Test that a machine's set of tubs follows later moves.
+     */
+    @Test
+    public void testLiveTubs() {
+        Set<Tub> tubs = f_2101.getTubs();
+        Assertions.assertThat(tubs).containsOnly(t27001, t27002);
+        t20305.setMachine(f_2101);
+        t27001.setMachine(sa_2301);
+        Assertions.assertThat(tubs).containsOnly(t20305, t27002);
+        Assertions.assertThat(sp_2402.getTubs()).containsOnly(t20308);
+        Assertions.assertThat(t27001.getMachine()).isEqualTo(sa_2301);
+    }
+
+    /**
+     * Test that asking after a machine with no tubs leaves the
+     * mediator as it was, and that machines with the same id
+     * share their tubs.
+     */
+    @Test
+    public void testMachineWithoutTubs() {
+        Fuser f_2102 = new Fuser(2102, mediator);
+        Assertions.assertThat(f_2102.getTubs()).isEmpty();
+        Assertions.assertThat(mediator.machineToTubs).hasSize(3);
+        Fuser twin = new Fuser(2101, mediator);
+        Assertions.assertThat(twin.hashCode()).isEqualTo(f_2101.hashCode());
+        Assertions.assertThat(twin.getTubs()).containsOnly(t27001, t27002);
+    }
+
+    /**
+     * Test that threads moving tubs at once leave each tub at
+     * exactly one machine.
+     */
+    @Test
+    public void testConcurrentMoves() throws InterruptedException {
+        ConcurrentMediator cm = new ConcurrentMediator();
+        final Machine[] machines = {
+            new Fuser(1, cm), new Mixer(2, cm), new StarPress(3, cm) };
+        final Tub[] tubs = new Tub[100];
+        for (int i = 0; i < tubs.length; i++) {
+            tubs[i] = new Tub("t" + i, cm);
+        }
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int seed = i;
+            threads[i] = new Thread(() -> {
+                Random r = new Random(seed);
+                for (int j = 0; j < 10000; j++) {
+                    tubs[r.nextInt(tubs.length)].setMachine(
+                        machines[r.nextInt(machines.length)]);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        int total = 0;
+        for (Machine m : machines) {
+            for (Object t : m.getTubs()) {
+                Assertions.assertThat(((Tub) t).getMachine()).isSameAs(m);
+            }
+            total += m.getTubs().size();
+        }
+        Assertions.assertThat(total).isEqualTo(tubs.length);
+    }
 }
@@ -0,0 +1,57 @@
+package com.oozinoz.machine;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+/**
+ * Test the circular-array queue.
+ */
+public class QueueTest {
+
+    /**
+     * Test that elements come out in order as the queue wraps
+     * around and grows.
+     */
+    @Test
+    public void testOrder() {
+        Queue q = new Queue();
+        int in = 0;
+        int out = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 7 * round; i++) {
+                q.enqueue(in++);
+            }
+            for (int i = 0; i < 5 * round; i++) {
+                Assertions.assertThat(q.dequeue()).isEqualTo(out++);
+            }
+            Assertions.assertThat(q.size()).isEqualTo(in - out);
+        }
+        while (!q.isEmpty()) {
+            Assertions.assertThat(q.dequeue()).isEqualTo(out++);
+        }
+        Assertions.assertThat(out).isEqualTo(in);
+    }
+
+    /**
+     * Test that a bounded queue reports when it is full and
+     * refuses more elements.
+     */
+    @Test
+    public void testBounded() {
+        Queue q = new Queue(3);
+        q.enqueue("a");
+        q.enqueue("b");
+        Assertions.assertThat(q.isFull()).isFalse();
+        q.enqueue("c");
+        Assertions.assertThat(q.isFull()).isTrue();
+        Assertions.assertThatThrownBy(() -> q.enqueue("d"))
+            .isInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(q.dequeue()).isEqualTo("a");
+        q.enqueue("d");
+        Assertions.assertThat(q.dequeue()).isEqualTo("b");
+        Assertions.assertThat(q.dequeue()).isEqualTo("c");
+        Assertions.assertThat(q.dequeue()).isEqualTo("d");
+        Assertions.assertThat(q.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,89 @@
+package com.oozinoz.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+
+import com.oozinoz.units.*;
+
+/**
+ * Test flying many varied copies of a rocket.
+ */
+public class MonteCarloTest implements UnitConstants {
+
+    private static MonteCarlo monteCarlo() {
+        SolidRocket r = new SolidRocket(
+            "JSquirrel",
+            (Speed) MILLIMETER.times(4).divide(SECOND),
+            (Area) CM.times(CM).times(100),
+            SECOND,
+            (Acceleration) NEWTON.times(1200).divide(KILOGRAM),
+            (Density) KILOGRAM.times(2400).divide(M).divide(M).divide(M));
+        r.setDryMass((Mass) KILOGRAM.times(.5));
+        r.setDragArea((Area) CM.times(CM).times(10));
+        MonteCarlo m = new MonteCarlo(r);
+        m.setAngle(Math.toRadians(75));
+        m.setBurnRateDeviation(.05);
+        m.setDensityDeviation(.02);
+        m.setHistogram(2000, 40);
+        return m;
+    }
+
+    /**
+     * Test that a run gives the same results for a seed whether
+     * it runs in parallel or not, and different results for a
+     * different seed.
+     */
+    @Test
+    public void testRepeatable() {
+        MonteCarlo serial = monteCarlo();
+        serial.run(3001, 42);
+        MonteCarlo parallel = monteCarlo();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.setParallel(pool, 300);
+            parallel.run(3001, 42);
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertThat(parallel.getHistogram()).isEqualTo(serial.getHistogram());
+        Assertions.assertThat(parallel.getApogees()).isEqualTo(serial.getApogees());
+
+        long total = 0;
+        for (long count : serial.getHistogram()) {
+            total += count;
+        }
+        Assertions.assertThat(total).isEqualTo(3001);
+        Assertions.assertThat(serial.getHistogram()[40]).isEqualTo(0);
+
+        MonteCarlo other = monteCarlo();
+        other.run(3001, 43);
+        Assertions.assertThat(other.getApogees()).isNotEqualTo(serial.getApogees());
+    }
+
+    /**
+     * Test that apogee percentiles rise, and that copies that
+     * do not vary all fly like the rocket.
+     */
+    @Test
+    public void testPercentiles() {
+        MonteCarlo m = monteCarlo();
+        m.run(1000, 7);
+        Assertions.assertThat(m.getApogeePercentile(0)).isLessThan(m.getApogeePercentile(50));
+        Assertions.assertThat(m.getApogeePercentile(50)).isLessThan(m.getApogeePercentile(100));
+        Assertions.assertThat(m.getApogeePercentile(100)).isEqualTo(m.getApogees()[999]);
+
+        m.setBurnRateDeviation(0);
+        m.setDensityDeviation(0);
+        m.run(10, 7);
+        Trajectory t = m.rocket.trajectory();
+        t.setAngle(Math.toRadians(75));
+        t.fly();
+        Assertions.assertThat(m.getApogeePercentile(0)).isEqualTo(t.getApogee());
+        Assertions.assertThat(m.getApogeePercentile(100)).isEqualTo(t.getApogee());
+        int bin = (int) (t.getDistance() / 50);
+        Assertions.assertThat(m.getHistogram()[bin]).isEqualTo(10);
+    }
+}
@@ -0,0 +1,124 @@
+package com.oozinoz.simulation;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+
+import com.oozinoz.units.*;
+
+/**
+ * Test integrating the flights of rockets.
+ */
+public class TrajectoryTest implements UnitConstants {
+
+    /*
+     * Return the apogee of a rocket flying straight up with no
+     * drag, from the rocket equation.
+     */
+    private static double vacuumApogee(double thrust, double burnTime, double propellant, double dry) {
+        double g = Trajectory.GRAVITY;
+        double rate = propellant / burnTime;
+        double ve = thrust / rate;
+        double m0 = propellant + dry;
+        double v = ve * Math.log(m0 / dry) - g * burnTime;
+        double h = ve * (burnTime - dry / rate * Math.log(m0 / dry)) - g * burnTime * burnTime / 2;
+        return h + v * v / (2 * g);
+    }
+
+    /**
+     * Test that a flight without drag reaches the height that
+     * the rocket equation predicts.
+     */
+    @Test
+    public void testVacuum() {
+        Trajectory t = new Trajectory(200, 2.5, 3, 4);
+        t.fly();
+        double expected = vacuumApogee(200, 2.5, 3, 4);
+        Assertions.assertThat(t.getApogee()).isCloseTo(expected, Offset.offset(expected * 1e-6));
+        Assertions.assertThat(t.getDistance()).isCloseTo(0, Offset.offset(1e-9));
+    }
+
+    /**
+     * Test that a recorded flight starts and ends on the ground,
+     * follows the launch rail, moves forward in time, and peaks
+     * at the apogee.
+     */
+    @Test
+    public void testPath() {
+        Trajectory t = new Trajectory(200, 2.5, 3, 4);
+        t.setDragArea(.01);
+        t.setAngle(Math.toRadians(70));
+        int n = t.fly();
+        double max = 0;
+        for (int i = 1; i < n; i++) {
+            Assertions.assertThat(t.getT()[i]).isGreaterThan(t.getT()[i - 1]);
+            Assertions.assertThat(t.getX()[i]).isGreaterThanOrEqualTo(t.getX()[i - 1]);
+            max = Math.max(max, t.getY()[i]);
+            if (Math.hypot(t.getX()[i], t.getY()[i]) < Trajectory.DEFAULT_RAIL_LENGTH) {
+                Assertions.assertThat(t.getY()[i] / t.getX()[i])
+                    .isCloseTo(Math.tan(Math.toRadians(70)), Offset.offset(1e-9));
+            }
+        }
+        Assertions.assertThat(t.getY()[n - 1]).isEqualTo(0.0);
+        Assertions.assertThat(t.getT()[n - 1]).isEqualTo(t.getFlightTime());
+        Assertions.assertThat(t.getX()[n - 1]).isEqualTo(t.getDistance()).isGreaterThan(0);
+        Assertions.assertThat(t.getApogee()).isGreaterThanOrEqualTo(max)
+            .isCloseTo(max, Offset.offset(.01))
+            .isLessThan(vacuumApogee(200, 2.5, 3, 4));
+
+        double apogee = t.getApogee();
+        t.setRecording(false);
+        Assertions.assertThat(t.fly()).isEqualTo(0);
+        Assertions.assertThat(t.getApogee()).isEqualTo(apogee);
+    }
+
+    /**
+     * Test that a rocket too heavy for its thrust stays on the
+     * pad until it burns out.
+     */
+    @Test
+    public void testPad() {
+        Trajectory t = new Trajectory(5, 2, 1, 1);
+        t.fly();
+        Assertions.assertThat(t.getApogee()).isEqualTo(0.0);
+        Assertions.assertThat(t.getFlightTime()).isCloseTo(2, Offset.offset(1e-9));
+    }
+
+    /**
+     * Test that a solid rocket's apogee comes from its flight.
+     */
+    @Test
+    public void testSolidRocket() {
+        SolidRocket r = new SolidRocket(
+            "JSquirrel",
+            (Speed) MILLIMETER.times(40).divide(SECOND),
+            (Area) CM.times(CM).times(100),
+            SECOND,
+            (Acceleration) NEWTON.times(1200).divide(KILOGRAM),
+            (Density) KILOGRAM.times(2400).divide(M).divide(M).divide(M));
+        double propellant = r.propellantMass().getMagnitude();
+        Assertions.assertThat(propellant).isCloseTo(.96, Offset.offset(1e-9));
+        r.setDryMass((Mass) KILOGRAM.times(2));
+        double expected = vacuumApogee(r.thrust().getMagnitude(), 1, propellant, 2);
+        Assertions.assertThat(r.apogee().getMagnitude())
+            .isCloseTo(expected, Offset.offset(expected * 1e-6));
+        r.setDragArea((Area) CM.times(CM).times(10));
+        Assertions.assertThat(r.apogee().getMagnitude()).isLessThan(expected / 2);
+    }
+
+    /**
+     * Test that each bad figure for a rocket gets its own
+     * message.
+     */
+    @Test
+    public void testBadRocket() {
+        Trajectory t = new Trajectory(200, 2.5, 3, 4);
+        Assertions.assertThatThrownBy(() -> t.setRocket(200, -1, 3, 4))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("seconds");
+        Assertions.assertThatThrownBy(() -> t.setRocket(200, 2.5, Double.NaN, 4))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("cannot burn NaN kg");
+        Assertions.assertThatThrownBy(() -> t.setRocket(200, 2.5, 3, 0))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("dry mass");
+    }
+}
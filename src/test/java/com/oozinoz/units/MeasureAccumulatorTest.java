@@ -0,0 +1,88 @@
+package com.oozinoz.units;
+
+import org.junit.Test;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+
+/**
+ * Test working out chains of measure arithmetic in an
+ * accumulator.
+ */
+public class MeasureAccumulatorTest implements UnitConstants {
+
+    /**
+     * Test that an accumulator gives what the same chain of
+     * Measure arithmetic gives, including the subtype.
+     */
+    @Test
+    public void testChain() {
+        Speed burnRate = (Speed) MILLIMETER.times(40).divide(SECOND);
+        Area burnArea = (Area) CM.times(CM).times(100);
+        Acceleration isp = (Acceleration) NEWTON.times(1200).divide(KILOGRAM);
+        Density density = (Density) KILOGRAM.times(2400).divide(M).divide(M).divide(M);
+        Measure expected = burnRate.times(burnArea).times(SECOND).times(isp).times(density);
+        Measure m = new MeasureAccumulator(burnRate)
+            .times(burnArea).times(SECOND).times(isp).times(density).toMeasure();
+        Assertions.assertThat(m).isInstanceOf(Force.class);
+        Assertions.assertThat(m.getDimension()).isEqualTo(expected.getDimension());
+        Assertions.assertThat(m.getMagnitude()).isEqualTo(expected.getMagnitude());
+
+        MeasureAccumulator a = new MeasureAccumulator(MILE).divide(HOUR);
+        Assertions.assertThat(a.is(DimensionConstants.SPEED)).isTrue();
+        Assertions.assertThat(a.getMagnitude()).isCloseTo(.44704, Offset.offset(1e-9));
+        a.times(new MeasureAccumulator(HOUR)).divide(FOOT);
+        Assertions.assertThat(a.toMeasure()).isInstanceOf(Constant.class);
+        Assertions.assertThat(a.getMagnitude()).isCloseTo(5280, Offset.offset(1e-9));
+    }
+
+    /**
+     * Test that adding and subtracting check dimensions.
+     */
+    @Test
+    public void testPlus() {
+        MeasureAccumulator a = new MeasureAccumulator(FOOT).plus(INCH).minus(CM);
+        Assertions.assertThat(a.getMagnitude())
+            .isEqualTo(FOOT.getMagnitude() + INCH.getMagnitude() - CM.getMagnitude());
+        Assertions.assertThatThrownBy(() -> a.plus(SECOND))
+            .isInstanceOf(MeasureException.class);
+        Assertions.assertThatThrownBy(() -> a.minus(GALLON))
+            .isInstanceOf(MeasureException.class);
+    }
+
+    /**
+     * Test that codes pack and unpack exponents, and that
+     * arithmetic that takes an exponent out of range fails.
+     */
+    @Test
+    public void testCodes() {
+        for (int l = -128; l <= 127; l += 51) {
+            for (int m = -128; m <= 127; m += 17) {
+                for (int t = -128; t <= 127; t += 85) {
+                    Dimension d = new Dimension(l, m, t);
+                    Assertions.assertThat(Dimension.fromCode(d.getCode())).isEqualTo(d);
+                }
+            }
+        }
+        Dimension d = new Dimension(2, -1, 127);
+        Assertions.assertThat(Dimension.fromCode(
+            Dimension.timesCode(d.getCode(), new Dimension(2, -1, -127).getCode())))
+            .isEqualTo(new Dimension(4, -2, 0));
+        Assertions.assertThat(Dimension.fromCode(
+            Dimension.divideCode(d.getCode(), new Dimension(3, 4, 127).getCode())))
+            .isEqualTo(new Dimension(-1, -5, 0));
+        MeasureAccumulator a = new MeasureAccumulator();
+        Dimension high = new Dimension(0, 100, 0);
+        a.set(1, high);
+        Assertions.assertThatThrownBy(() -> a.times(new Measure(1, high)))
+            .isInstanceOf(MeasureException.class);
+        a.set(1, new Dimension(-100, 0, 0));
+        Assertions.assertThatThrownBy(() -> a.divide(new Measure(1, new Dimension(100, 0, 0))))
+            .isInstanceOf(MeasureException.class);
+        a.set(1, new Dimension(0, 0, -100));
+        Assertions.assertThatThrownBy(() -> a.times(new Measure(1, new Dimension(0, 0, -100))))
+            .isInstanceOf(MeasureException.class);
+        Assertions.assertThatThrownBy(() -> new Dimension(0, 128, 0))
+            .isInstanceOf(MeasureException.class);
+    }
+}
@@ -64,6 +64,44 @@ public class UnitsTest implements UnitConstants {
         m = (Energy) POUND.times(METER);
     }
 
+    /**
+     * Test that dimension arithmetic returns shared instances,
+     * even for dimensions too big for the table of small ones.
+     */
+    @Test
+    public void testInterning() {
+        Assertions.assertThat(FOOT.times(FOOT).getDimension())
+            .isSameAs(DimensionConstants.AREA);
+        Assertions.assertThat(NEWTON.divide(M).divide(M).getDimension())
+            .isSameAs(DimensionConstants.PRESSURE);
+        Assertions.assertThat(new Dimension(1, 0, -1).intern())
+            .isSameAs(DimensionConstants.SPEED);
+        Dimension big = Dimension.of(9, 0, 0);
+        Assertions.assertThat(big.getIndex()).isEqualTo(-1);
+        Assertions.assertThat(DimensionConstants.VOLUME.times(DimensionConstants.VOLUME)
+            .times(DimensionConstants.VOLUME)).isSameAs(big);
+        Assertions.assertThat(new Measure(2, new Dimension(1, 0, -2)).equals(G, 10)).isTrue();
+    }
+
+    /**
+     * Test that measures get the subclass and the label that
+     * suit their dimensions.
+     */
+    @Test
+    public void testKinds() {
+        Assertions.assertThat(Measure.measure(1, new Dimension(1, 1, -2))).isInstanceOf(Force.class);
+        Assertions.assertThat(MILE.divide(HOUR)).isInstanceOf(Speed.class);
+        Assertions.assertThat(PSI).isInstanceOf(Pressure.class);
+        Assertions.assertThat(Measure.measure(1, Dimension.of(0, 0, -1)).getClass())
+            .isEqualTo(Measure.class);
+        Assertions.assertThat(METER.times(3).toString()).isEqualTo("3.0 meters");
+        Assertions.assertThat(C.divide(C).toString()).isEqualTo("1.0");
+        Assertions.assertThat(NEWTON.times(2).toString()).isEqualTo("2.0 newtons");
+        Assertions.assertThat(PASCAL.toString()).isEqualTo("1.0(-1,1,-2)");
+        Assertions.assertThat(Measure.measure(5, Dimension.of(9, 0, 0)).toString())
+            .isEqualTo("5.0(9,0,0)");
+    }
+
     /**
      * Test how many feet are in a mile.
      */
@@ -101,6 +139,97 @@ public class UnitsTest implements UnitConstants {
             .isCloseTo(1234.0, Offset.offset(.000001));
     }
 
+    /**
+     * Test rounding zero, negative, huge and tiny numbers, and
+     * rounding that carries into another digit.
+     */
+    @Test
+    public void testRoundEdges() {
+        Assertions.assertThat(Measure.round(0, 4)).isEqualTo(0.0);
+        Assertions.assertThat(Measure.round(-1234.5678, 2)).isEqualTo(-1200.0);
+        Assertions.assertThat(Measure.round(9999.6, 4)).isEqualTo(10000.0);
+        Assertions.assertThat(Measure.round(1.23456e300, 3)).isEqualTo(1.23e300);
+        Assertions.assertThat(Measure.round(1.23456e-300, 3)).isEqualTo(1.23e-300);
+        Assertions.assertThat(Measure.round(1e300, 2)).isEqualTo(1e300);
+        Assertions.assertThat(Measure.round(3.166104765059249E-24, 4)).isEqualTo(3.166e-24);
+        Assertions.assertThat(Measure.round(Double.MIN_VALUE, 4)).isEqualTo(Double.MIN_VALUE);
+        Assertions.assertThat(Measure.round(1000, 1)).isEqualTo(1000.0);
+        Assertions.assertThat(Measure.round(.1 + .2, 4)).isEqualTo(.3);
+        Assertions.assertThat(Measure.round(Double.NaN, 4)).isNaN();
+        Assertions.assertThat(Measure.round(1234.5678, 0)).isEqualTo(1000.0);
+        Assertions.assertThat(Measure.round(-5678, -3)).isEqualTo(-6000.0);
+        Assertions.assertThat(Measure.round(1234.5678, 40)).isEqualTo(1234.5678);
+    }
+
+    /**
+     * Test that rounding gives the double nearest to the exact
+     * rounded number, across the whole range of doubles.
+     */
+    @Test
+    public void testRoundExact() {
+        java.util.Random r = new java.util.Random(17);
+        for (int i = 0; i < 100000; i++) {
+            double x = Double.longBitsToDouble(r.nextLong() & 0x7fefffffffffffffL);
+            int nDigit = 1 + r.nextInt(17);
+            double exact = new java.math.BigDecimal(x)
+                .round(new java.math.MathContext(nDigit, java.math.RoundingMode.HALF_UP))
+                .doubleValue();
+            Assertions.assertThat(Measure.round(x, nDigit)).isEqualTo(exact);
+            Assertions.assertThat(Measure.round(-x, nDigit)).isEqualTo(-exact);
+        }
+    }
+
+    /**
+     * Test that formatting a rounded number writes what
+     * Double.toString() writes for it.
+     */
+    @Test
+    public void testFormat() {
+        java.util.Random r = new java.util.Random(17);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            double x = (r.nextBoolean() ? 1 : -1) * (1 + 9 * r.nextDouble())
+                * Math.pow(10, r.nextInt(615) - 307);
+            int nDigit = 1 + r.nextInt(15);
+            out.setLength(0);
+            Measure.format(x, nDigit, out);
+            double rounded = Measure.round(x, nDigit);
+            Assertions.assertThat(Double.parseDouble(out.toString())).isEqualTo(rounded);
+            // before Java 19, toString() sometimes writes more digits than it needs
+            String s = Double.toString(rounded);
+            if (s.length() <= out.length()) {
+                Assertions.assertThat(out.toString()).isEqualTo(s);
+            }
+        }
+        double[] special = {0, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, 1e7, 9999999.6, 1e-3, 9.99996e-4};
+        for (int i = 0; i < special.length; i++) {
+            out.setLength(0);
+            Measure.format(special[i], 4, out);
+            Assertions.assertThat(out.toString()).isEqualTo(Double.toString(Measure.round(special[i], 4)));
+        }
+        out.setLength(0);
+        Measure.format(1.23456e300, 3, out);
+        Assertions.assertThat(out.toString()).isEqualTo("1.23E300");
+        out.setLength(0);
+        Measure.format(1234.5678, 0, out);
+        Assertions.assertThat(out.toString()).isEqualTo("1000.0");
+    }
+
+    /**
+     * Test writing measures to an Appendable.
+     */
+    @Test
+    public void testAppendTo() throws java.io.IOException {
+        java.io.StringWriter w = new java.io.StringWriter();
+        FOOT.times(-1000).appendTo(w);
+        w.append(';');
+        PSI.appendTo(w);
+        w.append(';');
+        new Measure(0, Dimension.of(9, 0, -12)).appendTo(w);
+        Assertions.assertThat(w.toString())
+            .isEqualTo("-304.8 meters;6895.0(-1,1,-2);0.0(9,0,-12)");
+    }
+
     /**
      * Test volume units.
      */